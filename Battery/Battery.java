@@ -1,16 +1,27 @@
 public class Battery {
 
     // --- Batteryparameter ---
+    private double nominalCapacity;     // Capacity when new [kWh]
     private double capacity;            // Capacity [kWh]
     private double stateOfCharge;       // Current charge [kWh]
     private double maxChargePower;      // Maximum charge in one timestep [kWh]
     private double maxDischargePower;   // Maximum discharge in one timestep [kWh]
     private double roundTripEfficiency; // Charge-Discharge efficiency (applied twice)
-    private double degradationPerCycle; // Capacity loss per cycle [%/1.0]
+    private double degradationPerCycle; // Capacity loss per full 100 % DoD cycle [%/1.0]
 
     private double cycles;              // Charging cycles
 
+    private final RainflowCounter rainflow; // Counts cycles by depth of discharge for the degradation
+
+    private static final int RAINFLOW_TURNING_POINTS = 64;
+
     public Battery(double capacity, double maxChargePower, double maxDischargePower, double roundTripEfficiency, double degradationPerCycle) {
+        this(capacity, maxChargePower, maxDischargePower, roundTripEfficiency, degradationPerCycle, 1.0);
+    }
+
+    // dodExponent > 1 makes deep cycles degrade the battery more than several shallow ones of the same throughput
+    public Battery(double capacity, double maxChargePower, double maxDischargePower, double roundTripEfficiency, double degradationPerCycle, double dodExponent) {
+        this.nominalCapacity = capacity;
         this.capacity = capacity;
         this.stateOfCharge = 0.0;
         this.maxChargePower = maxChargePower;
@@ -18,18 +29,52 @@ public class Battery {
         this.roundTripEfficiency = roundTripEfficiency;
         this.degradationPerCycle = degradationPerCycle;
         this.cycles = 0;
+        this.rainflow = new RainflowCounter(RAINFLOW_TURNING_POINTS, degradationPerCycle, dodExponent);
+        this.rainflow.add(0.0);
+    }
+
+    // Copy with the same parameters and state, used to branch what-if runs
+    public Battery(Battery other) {
+        this.rainflow = new RainflowCounter(other.rainflow);
+        copyFrom(other);
+    }
+
+    // Overwrites parameters and state with those of another battery without allocating
+    public void copyFrom(Battery other) {
+        this.nominalCapacity = other.nominalCapacity;
+        this.maxChargePower = other.maxChargePower;
+        this.maxDischargePower = other.maxDischargePower;
+        this.roundTripEfficiency = other.roundTripEfficiency;
+        this.degradationPerCycle = other.degradationPerCycle;
+        this.capacity = other.capacity;
+        this.stateOfCharge = other.stateOfCharge;
+        this.cycles = other.cycles;
+        this.rainflow.copyFrom(other.rainflow);
+    }
+
+    // Captures capacity, state of charge, cycles and the open rainflow cycles
+    public BatteryState snapshot() {
+        return new BatteryState(capacity, stateOfCharge, cycles, new RainflowCounter(rainflow));
+    }
+
+    // Resets the battery to a previously captured state (parameters are kept)
+    public void restore(BatteryState state) {
+        this.capacity = state.getCapacity();
+        this.stateOfCharge = state.getSOC();
+        this.cycles = state.getCycles();
+        this.rainflow.copyFrom(state.rainflow);
     }
 
     // Charges battery and returns the actual charge
     public double charge(double requestedEnergy) {
-        double maxPossibleCharge = Math.min(maxChargePower, (capacity - stateOfCharge));
         double reducedEnergy = requestedEnergy * roundTripEfficiency;
-        double actualCharge = Math.min(reducedEnergy, maxPossibleCharge);
+        double actualCharge = chargeStep(requestedEnergy, stateOfCharge, capacity, maxChargePower, roundTripEfficiency);
         double loss = reducedEnergy - actualCharge; // For usage in Anylogic
 
         stateOfCharge += actualCharge;
 
         cycles += actualCharge / capacity;
+        trackCycle();
 
         return actualCharge;
     }
@@ -41,14 +86,14 @@ public class Battery {
         if(trueDischarge) {
             newRequestedEnergy /= roundTripEfficiency;
         }
-        double maxPossibleDischarge = Math.min(maxDischargePower, stateOfCharge);
-        double actualDischarge = Math.min(newRequestedEnergy, maxPossibleDischarge);
+        double actualDischarge = dischargeStep(newRequestedEnergy, stateOfCharge, maxDischargePower);
 
         double missing = newRequestedEnergy - actualDischarge;
 
         stateOfCharge -= actualDischarge;
 
         cycles += actualDischarge / capacity;
+        trackCycle();
 
         if(trueDischarge){
             if(missing==0){
@@ -58,9 +103,64 @@ public class Battery {
         return actualDischarge * roundTripEfficiency;
     }
 
+    // Runs the battery over a whole horizon in one allocation-free loop.
+    // Surplus charges, deficit is served by a true discharge; both of the same step are netted first.
+    // The per-step results are written into the caller-supplied trace
+    public void simulateHorizon(double[] surplus, double[] deficit, BatteryTrace trace) {
+        int steps = Math.min(surplus.length, deficit.length);
+        double[] socTrace = trace.soc;
+        double[] chargedTrace = trace.charged;
+        double[] dischargedTrace = trace.discharged;
+        double[] curtailedTrace = trace.curtailed;
+        double[] gridTrace = trace.grid;
+        double[] cycleTrace = trace.cycles;
+
+        for (int t = 0; t < steps; t++) {
+            double direct = Math.min(surplus[t], deficit[t]);
+            double toCharge = surplus[t] - direct;
+            double toDischarge = deficit[t] - direct;
+
+            double charged = toCharge > 0 ? charge(toCharge) : 0.0;
+            double discharged = toDischarge > 0 ? discharge(toDischarge, true) : 0.0;
+
+            if (socTrace != null) socTrace[t] = stateOfCharge;
+            if (chargedTrace != null) chargedTrace[t] = charged;
+            if (dischargedTrace != null) dischargedTrace[t] = discharged;
+            if (curtailedTrace != null) curtailedTrace[t] = toCharge - charged / roundTripEfficiency;
+            if (gridTrace != null) gridTrace[t] = toDischarge - discharged;
+            if (cycleTrace != null) cycleTrace[t] = cycles;
+        }
+    }
+
+    // Energy stored when offering surplus to a battery with the given state, same as charge():
+    // the surplus is reduced by the efficiency and limited by the charge power and the free capacity.
+    // Shared with the array based simulations (BatteryBank, HeadlessEvaluator, FleetSimulator),
+    // ternaries instead of Math.min keep their hot loops fast
+    public static double chargeStep(double surplus, double soc, double capacity, double maxChargePower, double roundTripEfficiency) {
+        double room = capacity - soc;
+        double limit = maxChargePower < room ? maxChargePower : room;
+        double offered = surplus * roundTripEfficiency;
+        return offered < limit ? offered : limit;
+    }
+
+    // Energy taken out of a battery with the given state, same as discharge():
+    // the requested energy (already divided by the efficiency for a true discharge) is limited by the discharge power and the charge
+    public static double dischargeStep(double requested, double soc, double maxDischargePower) {
+        double limit = maxDischargePower < soc ? maxDischargePower : soc;
+        return requested < limit ? requested : limit;
+    }
+
+    private void trackCycle() {
+        if (capacity > 0) {
+            rainflow.add(stateOfCharge / capacity);
+        }
+    }
+
     // Simulate Degradation
+    // Fade is taken from the rainflow counted cycles and always applied to the nominal capacity,
+    // so the result does not depend on how often this is called
     public void applyDegradation() {
-        double degradedCapacity = capacity * (1 - degradationPerCycle * cycles);
+        double degradedCapacity = nominalCapacity * (1 - rainflow.getTotalDamage());
         capacity = Math.max(degradedCapacity, 0);
         stateOfCharge = Math.min(stateOfCharge, capacity);
     }
@@ -78,6 +178,15 @@ public class Battery {
         return cycles;
     }
 
+    // Full cycles counted by the rainflow method (half cycles count 0.5)
+    public double getRainflowCycles() {
+        return rainflow.getCountedCycles();
+    }
+
+    public double getRoundTripEfficiency() {
+        return roundTripEfficiency;
+    }
+
     public double getSOCPercentage() {
         return (stateOfCharge / capacity) * 100.0;
     }
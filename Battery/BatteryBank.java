@@ -0,0 +1,169 @@
+public class BatteryBank {
+
+    // --- Batteryparameter (one entry per battery) ---
+    private final double[] nominalCapacity;     // Capacity when new [kWh]
+    private final double[] capacity;            // Capacity [kWh]
+    private final double[] stateOfCharge;       // Current charge [kWh]
+    private final double[] maxChargePower;      // Maximum charge in one timestep [kWh]
+    private final double[] maxDischargePower;   // Maximum discharge in one timestep [kWh]
+    private final double[] roundTripEfficiency; // Charge-Discharge efficiency (applied twice)
+    private final double[] degradationPerCycle; // Capacity loss per full 100 % DoD cycle [%/1.0]
+
+    private final double[] cycles;              // Charging cycles
+
+    private final int size;
+
+    // Stores many batteries in parallel arrays so one time step for all of them is a
+    // single loop over primitives. Semantics match Battery.charge, discharge and applyDegradation
+    // (degradation as for Battery with dodExponent 1, where rainflow damage equals half the throughput cycles).
+    public BatteryBank(int size) {
+        this.size = size;
+        this.nominalCapacity = new double[size];
+        this.capacity = new double[size];
+        this.stateOfCharge = new double[size];
+        this.maxChargePower = new double[size];
+        this.maxDischargePower = new double[size];
+        this.roundTripEfficiency = new double[size];
+        this.degradationPerCycle = new double[size];
+        this.cycles = new double[size];
+    }
+
+    // Copy with the same parameters and state, used to branch what-if runs
+    public BatteryBank(BatteryBank other) {
+        this(other.size);
+        copyFrom(other);
+    }
+
+    // Overwrites parameters and state with those of another bank of the same size without allocating
+    public void copyFrom(BatteryBank other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Bank sizes differ: " + other.size + " != " + size);
+        }
+        System.arraycopy(other.nominalCapacity, 0, nominalCapacity, 0, size);
+        System.arraycopy(other.maxChargePower, 0, maxChargePower, 0, size);
+        System.arraycopy(other.maxDischargePower, 0, maxDischargePower, 0, size);
+        System.arraycopy(other.roundTripEfficiency, 0, roundTripEfficiency, 0, size);
+        System.arraycopy(other.degradationPerCycle, 0, degradationPerCycle, 0, size);
+        System.arraycopy(other.capacity, 0, capacity, 0, size);
+        System.arraycopy(other.stateOfCharge, 0, stateOfCharge, 0, size);
+        System.arraycopy(other.cycles, 0, cycles, 0, size);
+    }
+
+    // Captures capacity, state of charge and cycles of all batteries
+    public BatteryBankState snapshot() {
+        return new BatteryBankState(capacity.clone(), stateOfCharge.clone(), cycles.clone());
+    }
+
+    // Resets all batteries to a previously captured state (parameters are kept)
+    public void restore(BatteryBankState state) {
+        if (state.size() != size) {
+            throw new IllegalArgumentException("State size differs: " + state.size() + " != " + size);
+        }
+        System.arraycopy(state.capacity, 0, capacity, 0, size);
+        System.arraycopy(state.stateOfCharge, 0, stateOfCharge, 0, size);
+        System.arraycopy(state.cycles, 0, cycles, 0, size);
+    }
+
+    // Sets the parameters of battery i and resets its state (same as new Battery(...))
+    public void set(int i, double capacity, double maxChargePower, double maxDischargePower, double roundTripEfficiency, double degradationPerCycle) {
+        this.nominalCapacity[i] = capacity;
+        this.capacity[i] = capacity;
+        this.stateOfCharge[i] = 0.0;
+        this.maxChargePower[i] = maxChargePower;
+        this.maxDischargePower[i] = maxDischargePower;
+        this.roundTripEfficiency[i] = roundTripEfficiency;
+        this.degradationPerCycle[i] = degradationPerCycle;
+        this.cycles[i] = 0;
+    }
+
+    // Charges every battery with the same requested energy, actual charge is written to actualCharge[i]
+    public void charge(double requestedEnergy, double[] actualCharge) {
+        for (int i = 0; i < size; i++) {
+            double charged = Battery.chargeStep(requestedEnergy, stateOfCharge[i], capacity[i], maxChargePower[i], roundTripEfficiency[i]);
+            stateOfCharge[i] += charged;
+            cycles[i] += charged / capacity[i];
+            actualCharge[i] = charged;
+        }
+    }
+
+    // Charges battery i with requestedEnergy[i]
+    public void charge(double[] requestedEnergy, double[] actualCharge) {
+        for (int i = 0; i < size; i++) {
+            double charged = Battery.chargeStep(requestedEnergy[i], stateOfCharge[i], capacity[i], maxChargePower[i], roundTripEfficiency[i]);
+            stateOfCharge[i] += charged;
+            cycles[i] += charged / capacity[i];
+            actualCharge[i] = charged;
+        }
+    }
+
+    // Discharges every battery with the same requested energy, obtained energy is written to obtained[i]
+    // trueDischarge tries to consider roundTripEfficiency beforehand (see Battery.discharge)
+    public void discharge(double requestedEnergy, boolean trueDischarge, double[] obtained) {
+        for (int i = 0; i < size; i++) {
+            double eff = roundTripEfficiency[i];
+            double newRequestedEnergy = trueDischarge ? requestedEnergy / eff : requestedEnergy;
+            double actualDischarge = Battery.dischargeStep(newRequestedEnergy, stateOfCharge[i], maxDischargePower[i]);
+            stateOfCharge[i] -= actualDischarge;
+            cycles[i] += actualDischarge / capacity[i];
+            // Fully served requests return the requested value, as Battery does for numerical stability
+            obtained[i] = trueDischarge && actualDischarge == newRequestedEnergy ? requestedEnergy : actualDischarge * eff;
+        }
+    }
+
+    // Discharges battery i with requestedEnergy[i]
+    public void discharge(double[] requestedEnergy, boolean trueDischarge, double[] obtained) {
+        for (int i = 0; i < size; i++) {
+            double eff = roundTripEfficiency[i];
+            double requested = requestedEnergy[i];
+            double newRequestedEnergy = trueDischarge ? requested / eff : requested;
+            double actualDischarge = Battery.dischargeStep(newRequestedEnergy, stateOfCharge[i], maxDischargePower[i]);
+            stateOfCharge[i] -= actualDischarge;
+            cycles[i] += actualDischarge / capacity[i];
+            obtained[i] = trueDischarge && actualDischarge == newRequestedEnergy ? requested : actualDischarge * eff;
+        }
+    }
+
+    // One time step for all batteries: positive netEnergy is surplus and charges,
+    // negative netEnergy is demand and discharges (trueDischarge). Result: stored (+) or obtained (-) energy
+    public void step(double netEnergy, double[] result) {
+        if (netEnergy >= 0) {
+            charge(netEnergy, result);
+        } else {
+            discharge(-netEnergy, true, result);
+            for (int i = 0; i < size; i++) {
+                result[i] = -result[i];
+            }
+        }
+    }
+
+    // Simulate Degradation for all batteries
+    public void applyDegradation() {
+        for (int i = 0; i < size; i++) {
+            // One full cycle (charge + discharge) adds 2 to the throughput cycle count
+            double degradedCapacity = nominalCapacity[i] * (1 - degradationPerCycle[i] * cycles[i] * 0.5);
+            capacity[i] = Math.max(degradedCapacity, 0);
+            stateOfCharge[i] = Math.min(stateOfCharge[i], capacity[i]);
+        }
+    }
+
+    // Getter
+    public int size() {
+        return size;
+    }
+
+    public double getSOC(int i) {
+        return stateOfCharge[i];
+    }
+
+    public double getCapacity(int i) {
+        return capacity[i];
+    }
+
+    public double getCycles(int i) {
+        return cycles[i];
+    }
+
+    public double getSOCPercentage(int i) {
+        return (stateOfCharge[i] / capacity[i]) * 100.0;
+    }
+}
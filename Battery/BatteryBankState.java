@@ -0,0 +1,30 @@
+public final class BatteryBankState {
+
+    // --- Captured state of a BatteryBank, one entry per battery (never modified after capture) ---
+    final double[] capacity;      // Capacity [kWh]
+    final double[] stateOfCharge; // Charge [kWh]
+    final double[] cycles;        // Charging cycles
+
+    BatteryBankState(double[] capacity, double[] stateOfCharge, double[] cycles) {
+        this.capacity = capacity;
+        this.stateOfCharge = stateOfCharge;
+        this.cycles = cycles;
+    }
+
+    // Getter
+    public int size() {
+        return capacity.length;
+    }
+
+    public double getCapacity(int i) {
+        return capacity[i];
+    }
+
+    public double getSOC(int i) {
+        return stateOfCharge[i];
+    }
+
+    public double getCycles(int i) {
+        return cycles[i];
+    }
+}
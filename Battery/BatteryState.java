@@ -0,0 +1,29 @@
+public final class BatteryState {
+
+    // --- Captured state of a Battery (immutable) ---
+    private final double capacity;      // Capacity [kWh]
+    private final double stateOfCharge; // Charge [kWh]
+    private final double cycles;        // Charging cycles
+
+    final RainflowCounter rainflow;     // Private copy of the open rainflow cycles, never modified
+
+    BatteryState(double capacity, double stateOfCharge, double cycles, RainflowCounter rainflow) {
+        this.capacity = capacity;
+        this.stateOfCharge = stateOfCharge;
+        this.cycles = cycles;
+        this.rainflow = rainflow;
+    }
+
+    // Getter
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public double getSOC() {
+        return stateOfCharge;
+    }
+
+    public double getCycles() {
+        return cycles;
+    }
+}
@@ -0,0 +1,25 @@
+public class BatteryTrace {
+
+    // --- Per-step output of Battery.simulateHorizon (null = not recorded) ---
+    public final double[] soc;          // State of charge after the step [kWh]
+    public final double[] charged;      // Energy stored in the battery [kWh]
+    public final double[] discharged;   // Energy delivered by the battery [kWh]
+    public final double[] curtailed;    // Surplus that could not be stored (fed in or curtailed) [kWh]
+    public final double[] grid;         // Deficit that had to be drawn from the grid [kWh]
+    public final double[] cycles;       // Cumulative charging cycles after the step
+
+    // Allocates all traces for the given number of steps; reuse the instance across runs
+    public BatteryTrace(int steps) {
+        this(new double[steps], new double[steps], new double[steps], new double[steps], new double[steps], new double[steps]);
+    }
+
+    // Wraps caller-owned arrays, any of them may be null if the trace is not needed
+    public BatteryTrace(double[] soc, double[] charged, double[] discharged, double[] curtailed, double[] grid, double[] cycles) {
+        this.soc = soc;
+        this.charged = charged;
+        this.discharged = discharged;
+        this.curtailed = curtailed;
+        this.grid = grid;
+        this.cycles = cycles;
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.ArrayDeque;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+public class BranchPool<T> {
+
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+    private final UnaryOperator<T> copy;      // Creates a new copy of a parent
+    private final BiConsumer<T, T> copyInto;  // Overwrites the first argument with the second
+
+    // Pool of reusable branch objects for what-if runs that fork from a shared prefix.
+    // Not thread-safe: use one pool per worker thread
+    public BranchPool(UnaryOperator<T> copy, BiConsumer<T, T> copyInto) {
+        this.copy = copy;
+        this.copyInto = copyInto;
+    }
+
+    public static BranchPool<Battery> forBatteries() {
+        return new BranchPool<>(Battery::new, Battery::copyFrom);
+    }
+
+    public static BranchPool<BatteryBank> forBanks() {
+        return new BranchPool<>(BatteryBank::new, BatteryBank::copyFrom);
+    }
+
+    // Returns an independent copy of parent, reusing a released object if one is available
+    public T branch(T parent) {
+        T branch = free.pollFirst();
+        if (branch == null) {
+            return copy.apply(parent);
+        }
+        copyInto.accept(branch, parent);
+        return branch;
+    }
+
+    // Hands a branch back to the pool once its run is finished
+    public void release(T branch) {
+        free.addFirst(branch);
+    }
+
+    public int available() {
+        return free.size();
+    }
+}
@@ -0,0 +1,136 @@
+public class RainflowCounter {
+
+    // --- Parameters ---
+    private double damagePerFullCycle; // Capacity loss for one full 100 % DoD cycle [%/1.0]
+    private double dodExponent;        // Damage of a cycle with depth d is damagePerFullCycle * d^dodExponent
+
+    // --- Turning points that have not been closed to a cycle yet (bounded stack) ---
+    private final double[] points;
+    private int size;
+
+    private double extreme;   // Running extreme of the current monotone segment
+    private int direction;    // +1 rising, -1 falling, 0 unknown
+
+    private double damage;     // Damage of all closed (counted) cycles
+    private double fullCycles; // Counted cycles, half cycles count 0.5
+
+    // Incremental rainflow counter (ASTM E1049 three-point method) fed with one
+    // state-of-charge value per step. Amortised O(1) per value, memory bounded by maxTurningPoints
+    public RainflowCounter(int maxTurningPoints, double damagePerFullCycle, double dodExponent) {
+        if (maxTurningPoints < 3) {
+            throw new IllegalArgumentException("maxTurningPoints must be at least 3");
+        }
+        this.points = new double[maxTurningPoints];
+        this.damagePerFullCycle = damagePerFullCycle;
+        this.dodExponent = dodExponent;
+    }
+
+    // Creates an independent copy of the counter including its open turning points
+    public RainflowCounter(RainflowCounter other) {
+        this.points = new double[other.points.length];
+        copyFrom(other);
+    }
+
+    // Overwrites this counter with the state of another one (same stack size), no allocation
+    public void copyFrom(RainflowCounter other) {
+        if (other.points.length != points.length) {
+            throw new IllegalArgumentException("Turning point stacks differ in size");
+        }
+        System.arraycopy(other.points, 0, points, 0, other.size);
+        size = other.size;
+        extreme = other.extreme;
+        direction = other.direction;
+        damage = other.damage;
+        fullCycles = other.fullCycles;
+        damagePerFullCycle = other.damagePerFullCycle;
+        dodExponent = other.dodExponent;
+    }
+
+    // Adds the next state of charge [0..1]
+    public void add(double soc) {
+        if (size == 0) {
+            points[0] = soc;
+            size = 1;
+            extreme = soc;
+            return;
+        }
+        if (soc == extreme) {
+            return;
+        }
+        int newDirection = soc > extreme ? 1 : -1;
+        if (direction == 0 || newDirection == direction) {
+            direction = newDirection;
+            extreme = soc;
+            return;
+        }
+        // Reversal: the running extreme is a turning point
+        push(extreme);
+        direction = newDirection;
+        extreme = soc;
+    }
+
+    private void push(double turningPoint) {
+        if (size == points.length) {
+            // Stack full: the oldest range can no longer be matched, count it as half cycle
+            count(Math.abs(points[1] - points[0]), 0.5);
+            System.arraycopy(points, 1, points, 0, size - 1);
+            size--;
+        }
+        points[size++] = turningPoint;
+
+        while (size >= 3) {
+            double x = Math.abs(points[size - 1] - points[size - 2]);
+            double y = Math.abs(points[size - 2] - points[size - 3]);
+            if (x < y) {
+                break;
+            }
+            if (size == 3) {
+                // Range contains the starting point: half cycle, drop the start
+                count(y, 0.5);
+                points[0] = points[1];
+                points[1] = points[2];
+                size = 2;
+            } else {
+                // Closed full cycle, remove both of its points
+                count(y, 1.0);
+                points[size - 3] = points[size - 1];
+                size -= 2;
+            }
+        }
+    }
+
+    private void count(double depth, double weight) {
+        fullCycles += weight;
+        damage += weight * cycleDamage(depth);
+    }
+
+    private double cycleDamage(double depth) {
+        return dodExponent == 1.0 ? damagePerFullCycle * depth : damagePerFullCycle * Math.pow(depth, dodExponent);
+    }
+
+    // Damage of the open residue, counted as half cycles (not yet closed, may change later)
+    public double getResidualDamage() {
+        double residual = 0;
+        for (int i = 1; i < size; i++) {
+            residual += 0.5 * cycleDamage(Math.abs(points[i] - points[i - 1]));
+        }
+        if (size > 0) {
+            residual += 0.5 * cycleDamage(Math.abs(extreme - points[size - 1]));
+        }
+        return residual;
+    }
+
+    // Damage of all closed cycles
+    public double getDamage() {
+        return damage;
+    }
+
+    // Total capacity fade including the open residue
+    public double getTotalDamage() {
+        return damage + getResidualDamage();
+    }
+
+    public double getCountedCycles() {
+        return fullCycles;
+    }
+}
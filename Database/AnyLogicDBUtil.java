@@ -145,6 +145,43 @@ public class AnyLogicDBUtil {
         importTableFromFile(conn, tableName, file, false);
     }
 
+    /**
+     * Imports a single CSV/Excel file and resamples it to a fixed interval while reading.
+     * Energy columns (kWh) are summed, prices and other numeric columns are averaged and
+     * timestamps are aligned to the start of their interval.
+     *
+     * @param conn Database connection
+     * @param tableName Name of the table to be created (null = use filename)
+     * @param file CSV or Excel file with a time/zeit column
+     * @param replaceTable true = replace existing table, false = append data
+     * @param intervalMinutes Target interval in minutes (0 or less = import without resampling)
+     */
+    public static void importTableFromFile(Connection conn, String tableName, File file, boolean replaceTable,
+                                           int intervalMinutes) throws SQLException, IOException {
+        if (intervalMinutes <= 0) {
+            importTableFromFile(conn, tableName, file, replaceTable);
+            return;
+        }
+        if (!file.exists()) {
+            System.err.println("FEHLER: Datei nicht gefunden für Import: " + file.getAbsolutePath()); // ERROR: File not found for import
+            throw new FileNotFoundException("Datei nicht gefunden: " + file.getAbsolutePath()); // File not found
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            tableName = deriveTableNameFromFile(file);
+        }
+        System.out.println("Lese Datei mit Resampling: " + file.getAbsolutePath() + " → Tabelle '" + tableName + "'"); // Reading file with resampling
+
+        CsvResampler resampler = new CsvResampler(intervalMinutes);
+        long written;
+        if (file.getName().toLowerCase().endsWith(".csv")) {
+            // CSV files are streamed, so arbitrarily large raw files never sit in memory
+            written = resampler.importCsv(conn, tableName, file, replaceTable);
+        } else {
+            written = resampler.importRows(conn, tableName, readFile(file), replaceTable);
+        }
+        System.out.println("Erfolgreich importiert: " + file.getName() + " → Tabelle '" + tableName + "' (" + written + " Intervalle à " + intervalMinutes + " min)"); // Successfully imported ... intervals of ... min
+    }
+
     /**
      * Imports all CSV/Excel files from a directory.
      *
@@ -154,6 +191,20 @@ public class AnyLogicDBUtil {
      */
     public static void importTablesFromDirectory(Connection conn, File directory, boolean replaceExistingTables)
             throws SQLException, IOException {
+        importTablesFromDirectory(conn, directory, replaceExistingTables, 0);
+    }
+
+    /**
+     * Imports all CSV/Excel files from a directory and resamples each of them
+     * to the given interval.
+     *
+     * @param conn Database connection
+     * @param directory Directory with CSV/Excel files
+     * @param replaceExistingTables true = replace existing tables
+     * @param intervalMinutes Target interval in minutes (0 or less = import without resampling)
+     */
+    public static void importTablesFromDirectory(Connection conn, File directory, boolean replaceExistingTables,
+                                                 int intervalMinutes) throws SQLException, IOException {
 
         if (!directory.exists() || !directory.isDirectory()) {
             System.err.println("FEHLER: Verzeichnis nicht gefunden oder kein Verzeichnis: " + directory.getAbsolutePath()); // ERROR: Directory not found or not a directory
@@ -179,7 +230,7 @@ public class AnyLogicDBUtil {
             try {
                 System.out.println("Verarbeite Datei: " + file.getName()); // Processing file
                 String tableName = deriveTableNameFromFile(file);
-                importTableFromFile(conn, tableName, file, replaceExistingTables);
+                importTableFromFile(conn, tableName, file, replaceExistingTables, intervalMinutes);
             } catch (Exception e) {
                 System.err.println("Fehler beim Importieren von " + file.getName() + ": " + e.getMessage()); // Error importing from
                 e.printStackTrace(); // More detailed error message for debugging
@@ -431,6 +482,44 @@ public class AnyLogicDBUtil {
         return null;
     }
 
+    /**
+     * Reads a whole numeric column ordered by its timestamp into a primitive array.
+     * Intended to load time series once at model start instead of querying every step.
+     * Missing values (NULL) are returned as 0.
+     *
+     * @param conn            Active database connection
+     * @param tableName       Name of the table
+     * @param timestampColumn Name of the timestamp column used for ordering
+     * @param valueColumn     Name of the value column (e.g. "kWh")
+     * @return                Values in timestamp order
+     */
+    public static double[] getColumnValues(Connection conn,
+                                           String tableName,
+                                           String timestampColumn,
+                                           String valueColumn) throws SQLException {
+        String sanitizedTable = sanitizeTableName(tableName);
+        String sanitizedColumn = sanitizeColumnName(valueColumn);
+        String sanitizedTimeColumn = sanitizeColumnName(timestampColumn);
+        String sql = "SELECT " + sanitizedColumn + " FROM " + sanitizedTable +
+                " ORDER BY " + sanitizedTimeColumn;
+
+        double[] values = new double[8192];
+        int count = 0;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(8192);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    if (count == values.length) {
+                        values = Arrays.copyOf(values, count * 2);
+                    }
+                    values[count++] = rs.getDouble(1); // getDouble returns 0 for NULL
+                }
+            }
+        }
+        System.out.println(count + " Werte aus " + sanitizedTable + "." + sanitizedColumn + " geladen."); // ... values loaded from
+        return Arrays.copyOf(values, count);
+    }
+
     //************************************************************************
     // Private helper methods
 
@@ -477,6 +566,10 @@ public class AnyLogicDBUtil {
     }
 
     private static String[] parseCsvLine(String line) {
+        return parseCsvLine(line, ',');
+    }
+
+    static String[] parseCsvLine(String line, char delimiter) {
         List<String> fields = new ArrayList<>();
         StringBuilder field = new StringBuilder();
         boolean inQuotes = false;
@@ -490,7 +583,7 @@ public class AnyLogicDBUtil {
                 } else {
                     inQuotes = !inQuotes;
                 }
-            } else if (c == ',' && !inQuotes) {
+            } else if (c == delimiter && !inQuotes) {
                 fields.add(field.toString().trim());
                 field.setLength(0);
             } else {
@@ -968,11 +1061,11 @@ public class AnyLogicDBUtil {
         return sanitized.toLowerCase();
     }
 
-    private static String sanitizeTableName(String name) {
+    static String sanitizeTableName(String name) {
         return sanitizeIdentifier(name, "tbl");
     }
 
-    private static String sanitizeColumnName(String name) {
+    static String sanitizeColumnName(String name) {
         return sanitizeIdentifier(name, "col");
     }
 }
\ No newline at end of file
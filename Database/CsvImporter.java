@@ -1,5 +1,6 @@
 import java.io.File;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,37 +11,29 @@ import java.util.Map;
  */
 class CsvImporter {
 
+    /**
+     * Opens the connection used by a command. The default opens a fresh connection
+     * per command, {@link ImporterDaemon} replaces it with a pooled source.
+     */
+    interface ConnectionSource {
+        Connection open(String jdbcUrl) throws SQLException;
+    }
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_USAGE = 2; // Unknown command or missing arguments
+
+    private static volatile ConnectionSource connectionSource = CsvImporter::openDirectConnection;
+
     public static void main(String[] args) {
         if (args.length == 0) {
             printUsage();
             return;
         }
 
-        String command = args[0].toLowerCase();
-
         try {
-            switch (command) {
-                case "import-file":
-                    handleFileImport(args);
-                    break;
-                case "import-dir":
-                    handleDirectoryImport(args);
-                    break;
-                case "create-table":
-                    handleCreateTable(args);
-                    break;
-                case "insert-data":
-                    handleInsertData(args);
-                    break;
-                case "show-table":
-                    handleShowTable(args);
-                    break;
-                case "list-tables":
-                    handleListTables(args);
-                    break;
-                default:
-                    System.err.println("Unknown command: " + command);
-                    printUsage();
+            int status = execute(args);
+            if (status != EXIT_OK) {
+                System.exit(status);
             }
         } catch (Exception e) {
             System.err.println("An error occurred: " + e.getMessage());
@@ -48,87 +41,134 @@ class CsvImporter {
         }
     }
 
-    private static void handleFileImport(String[] args) throws Exception {
+    /**
+     * Runs a single command. Used by {@link #main} and by the daemon for commands
+     * received over its socket.
+     *
+     * @return {@link #EXIT_OK}, or {@link #EXIT_USAGE} after printing the usage for an
+     *         unknown command or missing arguments
+     */
+    static int execute(String[] args) throws Exception {
+        if (args.length == 0) {
+            printUsage();
+            return EXIT_USAGE;
+        }
+
+        String command = args[0].toLowerCase();
+
+        switch (command) {
+            case "import-file":
+                return handleFileImport(args);
+            case "import-dir":
+                return handleDirectoryImport(args);
+            case "create-table":
+                return handleCreateTable(args);
+            case "insert-data":
+                return handleInsertData(args);
+            case "show-table":
+                return handleShowTable(args);
+            case "list-tables":
+                return handleListTables(args);
+            default:
+                System.err.println("Unknown command: " + command);
+                printUsage();
+                return EXIT_USAGE;
+        }
+    }
+
+    static void setConnectionSource(ConnectionSource source) {
+        connectionSource = source;
+    }
+
+    private static Connection openConnection(String jdbcUrl) throws SQLException {
+        return connectionSource.open(jdbcUrl);
+    }
+
+    static Connection openDirectConnection(String jdbcUrl) throws SQLException {
+        return jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
+                AnyLogicDBUtil.openConnection(jdbcUrl) : // May require user/pass if your DB needs it
+                AnyLogicDBUtil.openProjektYDBConnection(); // Default to ProjektY
+    }
+
+    private static int handleFileImport(String[] args) throws Exception {
         if (args.length < 2) {
-            System.err.println("Usage: import-file <file> [tableName] [jdbcUrl] [replaceTrueFalse]");
-            return;
+            System.err.println("Usage: import-file <file> [tableName] [jdbcUrl] [replaceTrueFalse] [intervalMinutes]");
+            return EXIT_USAGE;
         }
 
         File file = new File(args[1]);
         String tableName = args.length > 2 ? args[2] : null;
         String jdbcUrl = args.length > 3 ? args[3] : null; // explicit URL
         boolean replace = args.length > 4 && "true".equalsIgnoreCase(args[4]);
+        int intervalMinutes = args.length > 5 ? Integer.parseInt(args[5]) : 0; // 0 = no resampling
 
         // Logic for establishing connection:
         // 1. If jdbcUrl is specified, use it.
         // 2. Otherwise, use the default connection (ProjektY).
-        try (Connection conn = jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
-                AnyLogicDBUtil.openConnection(jdbcUrl) : // May require user/pass if your DB needs it
-                AnyLogicDBUtil.openProjektYDBConnection()) { // Default to ProjektY
+        try (Connection conn = openConnection(jdbcUrl)) {
 
-            AnyLogicDBUtil.importTableFromFile(conn, tableName, file, replace);
+            AnyLogicDBUtil.importTableFromFile(conn, tableName, file, replace, intervalMinutes);
             System.out.println("File import completed successfully.");
         }
+        return EXIT_OK;
     }
 
-    private static void handleDirectoryImport(String[] args) throws Exception {
+    private static int handleDirectoryImport(String[] args) throws Exception {
         if (args.length < 2) {
-            System.err.println("Usage: import-dir <directory> [jdbcUrl] [replaceTrueFalse]");
-            return;
+            System.err.println("Usage: import-dir <directory> [jdbcUrl] [replaceTrueFalse] [intervalMinutes]");
+            return EXIT_USAGE;
         }
 
         File dir = new File(args[1]);
         String jdbcUrl = args.length > 2 ? args[2] : null;
         boolean replace = args.length > 3 && "true".equalsIgnoreCase(args[3]);
+        int intervalMinutes = args.length > 4 ? Integer.parseInt(args[4]) : 0;
 
-        try (Connection conn = jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
-                AnyLogicDBUtil.openConnection(jdbcUrl) :
-                AnyLogicDBUtil.openProjektYDBConnection()) {
+        try (Connection conn = openConnection(jdbcUrl)) {
 
-            AnyLogicDBUtil.importTablesFromDirectory(conn, dir, replace);
+            AnyLogicDBUtil.importTablesFromDirectory(conn, dir, replace, intervalMinutes);
             System.out.println("Directory import completed successfully.");
         }
+        return EXIT_OK;
     }
 
-    private static void handleShowTable(String[] args) throws Exception {
+    private static int handleShowTable(String[] args) throws Exception {
         if (args.length < 2) {
             System.err.println("Usage: show-table <tableName> [maxRows] [jdbcUrl]");
-            return;
+            return EXIT_USAGE;
         }
 
         String tableName = args[1];
         int maxRows = args.length > 2 ? Integer.parseInt(args[2]) : 100; // Default 100 rows
         String jdbcUrl = args.length > 3 ? args[3] : null;
 
-        try (Connection conn = jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
-                AnyLogicDBUtil.openConnection(jdbcUrl) :
-                AnyLogicDBUtil.openProjektYDBConnection()) {
+        try (Connection conn = openConnection(jdbcUrl)) {
 
             AnyLogicDBUtil.displayTable(conn, tableName, maxRows);
         }
+        return EXIT_OK;
     }
 
-    private static void handleListTables(String[] args) throws Exception {
+    private static int handleListTables(String[] args) throws Exception {
         // The first parameter after 'list-tables' is optionally the jdbcUrl
         String jdbcUrl = args.length > 1 ? args[1] : null;
 
-        try (Connection conn = jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
-                AnyLogicDBUtil.openConnection(jdbcUrl) :
-                AnyLogicDBUtil.openProjektYDBConnection()) {
+        try (Connection conn = openConnection(jdbcUrl)) {
 
             AnyLogicDBUtil.listTables(conn);
         }
+        return EXIT_OK;
     }
 
     // The following methods are examples and not yet fully implemented
     // for command line use. They would require more argument parsing.
-    private static void handleCreateTable(String[] args) throws Exception {
+    private static int handleCreateTable(String[] args) throws Exception {
         // Example: java CsvImporter create-table myTable "id INTEGER, name VARCHAR(100)" [jdbcUrl]
         if (args.length < 3) {
             System.err.println("Usage: create-table <tableName> \"column1 TYPE, column2 TYPE\" [jdbcUrl] [replaceTrueFalse]");
             System.err.println("Note: Enclose column definitions in quotes.");
             System.err.println("This command is rudimentary. Use Java API for complex schemas.");
-            return;
+            return EXIT_USAGE;
         }
         String tableName = args[1];
         String columnDefs = args[2]; // e.g., "id INTEGER PRIMARY KEY, name VARCHAR(100)"
@@ -149,30 +189,29 @@ class CsvImporter {
         } catch (Exception e) {
             System.err.println("Error parsing column definitions: " + e.getMessage());
             printUsage();
-            return;
+            return EXIT_USAGE;
         }
 
         if (columns.isEmpty()) {
             System.err.println("No valid columns defined for create-table.");
-            return;
+            return EXIT_USAGE;
         }
 
-        try (Connection conn = jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
-                AnyLogicDBUtil.openConnection(jdbcUrl) :
-                AnyLogicDBUtil.openProjektYDBConnection()) {
+        try (Connection conn = openConnection(jdbcUrl)) {
             AnyLogicDBUtil.createTable(conn, tableName, columns, replace);
             System.out.println("Table '" + tableName + "' successfully processed/created.");
         }
+        return EXIT_OK;
     }
 
-    private static void handleInsertData(String[] args) throws Exception {
+    private static int handleInsertData(String[] args) throws Exception {
         // Example: java CsvImporter insert-data myTable "id,name" "1,'Max';2,'Anna'" [jdbcUrl]
         // This is a very simplified example. A robust implementation would be more complex.
         if (args.length < 4) {
             System.err.println("Usage: insert-data <tableName> \"column1,column2\" \"value1.1,value1.2;value2.1,value2.2\" [jdbcUrl]");
             System.err.println("Note: Enclose columns and value sets in quotes. Separate values with commas, datasets with semicolons.");
             System.err.println("This command is rudimentary. Use Java API for complex inserts.");
-            return;
+            return EXIT_USAGE;
         }
         String tableName = args[1];
         String[] columnNames = args[2].split(",");
@@ -187,15 +226,14 @@ class CsvImporter {
 
         if (data.isEmpty()) {
             System.err.println("No data to insert.");
-            return;
+            return EXIT_USAGE;
         }
 
-        try (Connection conn = jdbcUrl != null && !jdbcUrl.trim().isEmpty() ?
-                AnyLogicDBUtil.openConnection(jdbcUrl) :
-                AnyLogicDBUtil.openProjektYDBConnection()) {
+        try (Connection conn = openConnection(jdbcUrl)) {
             AnyLogicDBUtil.insertManualData(conn, tableName, columnNames, data);
             System.out.println("Data successfully inserted into table '" + tableName + "'.");
         }
+        return EXIT_OK;
     }
 
     private static void printUsage() {
@@ -203,11 +241,12 @@ class CsvImporter {
         System.out.println("Usage: java CsvImporter <command> [options]");
         System.out.println();
         System.out.println("Commands:");
-        System.out.println("  import-file <file> [tableName] [jdbcUrl] [replaceTrueFalse]");
+        System.out.println("  import-file <file> [tableName] [jdbcUrl] [replaceTrueFalse] [intervalMinutes]");
         System.out.println("    Imports a single CSV/Excel (.xls) file.");
         System.out.println("    Example: java CsvImporter import-file data.csv my_table");
+        System.out.println("    Example: java CsvImporter import-file PVRawData.csv pv \"\" true 15");
         System.out.println();
-        System.out.println("  import-dir <directory> [jdbcUrl] [replaceTrueFalse]");
+        System.out.println("  import-dir <directory> [jdbcUrl] [replaceTrueFalse] [intervalMinutes]");
         System.out.println("    Imports all CSV/Excel (.xls) files from a directory.");
         System.out.println();
         System.out.println("  create-table <tableName> \"column1 TYPE, column2 TYPE\" [jdbcUrl] [replaceTrueFalse]");
@@ -229,6 +268,10 @@ class CsvImporter {
         System.out.println("  jdbcUrl: JDBC URL of the target database.");
         System.out.println("           (Default: Connects to ProjektY DB: " + ")"); // Assuming AnyLogicDBUtil.getProjektYDB_JDBC_URL() or similar exists
         System.out.println("  replaceTrueFalse: 'true' or 'false' - Replaces existing table (Default: false).");
+        System.out.println("  intervalMinutes: Resamples rows to this interval while importing (Default: 0 = off).");
+        System.out.println("                   kWh columns are summed, prices and other values are averaged.");
         System.out.println("  maxRows: Maximum number of rows to display for 'show-table'.");
+        System.out.println();
+        System.out.println("All commands can also be sent to a running ImporterDaemon via ImporterClient.");
     }
 }
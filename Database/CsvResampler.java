@@ -0,0 +1,408 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Streaming resampler that aggregates time series rows into fixed intervals
+ * while a file is being imported.
+ * Energy columns (kWh, Wh, ...) are summed, all other numeric columns
+ * (prices, power, temperature) are averaged. Timestamps are aligned to the
+ * start of their interval, so raw PV or SMARD files can be imported at the
+ * resolution the model needs without an intermediate CSV.
+ */
+class CsvResampler {
+
+    /**
+     * How the values of one column are combined within an interval.
+     */
+    enum Aggregation {
+        SUM,
+        MEAN,
+        FIRST
+    }
+
+    // Number of data rows inspected to detect the timestamp and numeric columns
+    private static final int SAMPLE_ROWS = 100;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] TIMESTAMP_PATTERNS = {
+            "yyyy-MM-dd HH:mm:ss",
+            "yyyy-MM-dd HH:mm",
+            "dd.MM.yyyy HH:mm",
+            "dd.MM.yyyy HH:mm:ss",
+            "yyyyMMdd:HHmm" // PVGIS raw export
+    };
+    private static final DateTimeFormatter[] TIMESTAMP_FORMATS = new DateTimeFormatter[TIMESTAMP_PATTERNS.length];
+
+    static {
+        for (int i = 0; i < TIMESTAMP_PATTERNS.length; i++) {
+            TIMESTAMP_FORMATS[i] = DateTimeFormatter.ofPattern(TIMESTAMP_PATTERNS[i]);
+        }
+    }
+
+    private final int intervalMinutes;
+    private final Map<String, Aggregation> overrides = new HashMap<>();
+
+    // Index of the last formatter that matched, tried first for the next row
+    private int lastFormat = 0;
+
+    /**
+     * @param intervalMinutes Target interval length in minutes (e.g. 15)
+     */
+    CsvResampler(int intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            throw new IllegalArgumentException("Intervall muss größer als 0 sein: " + intervalMinutes); // Interval must be greater than 0
+        }
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    /**
+     * Forces the aggregation of a column instead of deriving it from the header name.
+     */
+    CsvResampler setAggregation(String header, Aggregation aggregation) {
+        overrides.put(header.trim().toLowerCase(), aggregation);
+        return this;
+    }
+
+    /**
+     * Streams a CSV file into the given table, aggregating rows to the target interval.
+     * Lines before the header (e.g. the PVGIS preamble) and rows without a valid
+     * timestamp are skipped.
+     *
+     * @return number of aggregated rows written
+     */
+    long importCsv(Connection conn, String tableName, File file, boolean replaceTable)
+            throws SQLException, IOException {
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            String[] headers = null;
+            char delimiter = ',';
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                line = stripBom(line);
+                delimiter = detectDelimiter(line);
+                String[] candidate = AnyLogicDBUtil.parseCsvLine(line, delimiter);
+                if (findTimeHeader(candidate) >= 0) {
+                    headers = candidate;
+                    break;
+                }
+            }
+            if (headers == null) {
+                throw new IOException("Keine Zeitspalte in " + file.getName() + " gefunden."); // No time column found in
+            }
+
+            // Buffer a small sample to decide on column types before streaming the rest
+            List<String[]> sample = new ArrayList<>(SAMPLE_ROWS);
+            while (sample.size() < SAMPLE_ROWS && (line = br.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    sample.add(AnyLogicDBUtil.parseCsvLine(line, delimiter));
+                }
+            }
+
+            final BufferedReader reader = br;
+            final char sep = delimiter;
+            Iterator<String[]> rest = new Iterator<String[]>() {
+                private String[] next = advance();
+
+                private String[] advance() {
+                    try {
+                        String l;
+                        while ((l = reader.readLine()) != null) {
+                            if (!l.trim().isEmpty()) return AnyLogicDBUtil.parseCsvLine(l, sep);
+                        }
+                        return null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public String[] next() {
+                    String[] current = next;
+                    next = advance();
+                    return current;
+                }
+            };
+
+            try {
+                return importRows(conn, tableName, headers, sample, rest, delimiter == ';', replaceTable);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Resamples rows that are already in memory (e.g. from an .xls sheet).
+     * The first row must contain the headers.
+     */
+    long importRows(Connection conn, String tableName, List<String[]> rows, boolean replaceTable)
+            throws SQLException {
+        if (rows.isEmpty()) return 0;
+        List<String[]> data = rows.subList(1, rows.size());
+        int sampleSize = Math.min(SAMPLE_ROWS, data.size());
+        return importRows(conn, tableName, rows.get(0), data.subList(0, sampleSize),
+                data.subList(sampleSize, data.size()).iterator(), false, replaceTable);
+    }
+
+    private long importRows(Connection conn, String tableName, String[] headers, List<String[]> sample,
+                            Iterator<String[]> rest, boolean decimalComma, boolean replaceTable)
+            throws SQLException {
+
+        int columns = headers.length;
+        int timeCol = detectTimeColumn(headers, sample);
+        if (timeCol < 0) {
+            throw new SQLException("Keine parsebare Zeitspalte für Tabelle " + tableName + " gefunden."); // No parsable time column found
+        }
+
+        boolean[] numeric = new boolean[columns];
+        Aggregation[] aggregations = new Aggregation[columns];
+        String[] types = new String[columns];
+        for (int c = 0; c < columns; c++) {
+            if (c == timeCol) {
+                types[c] = "TIMESTAMP";
+                aggregations[c] = Aggregation.FIRST;
+                continue;
+            }
+            numeric[c] = isNumericColumn(sample, c, decimalComma);
+            aggregations[c] = numeric[c] ? aggregationFor(headers[c]) : Aggregation.FIRST;
+            types[c] = numeric[c] ? "DOUBLE" : "VARCHAR(255)";
+        }
+
+        // One entry per CSV column; duplicate names (after sanitizing, case-insensitive as in HSQLDB) get a suffix
+        Map<String, String> columnDefs = new LinkedHashMap<>();
+        Set<String> usedNames = new HashSet<>();
+        for (int c = 0; c < columns; c++) {
+            String header = headers[c] == null || headers[c].trim().isEmpty() ? "col_" + c : headers[c];
+            String name = header;
+            for (int n = 2; !usedNames.add(AnyLogicDBUtil.sanitizeColumnName(name).toUpperCase()); n++) {
+                name = header + "_" + n;
+            }
+            if (!name.equals(header)) {
+                System.out.println("Warnung: Doppelte Spalte '" + header + "' in Tabelle " + tableName + ", verwende '" + name + "'."); // Warning: duplicate column ... in table ..., using ...
+            }
+            columnDefs.put(name, types[c]);
+        }
+        AnyLogicDBUtil.createTable(conn, tableName, columnDefs, replaceTable);
+        System.out.println("Resample auf " + intervalMinutes + "-Minuten-Intervalle: " + Arrays.toString(aggregations)); // Resampling to ...-minute intervals
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(AnyLogicDBUtil.sanitizeTableName(tableName)).append(" (");
+        int i = 0;
+        for (String header : columnDefs.keySet()) {
+            if (i++ > 0) sql.append(", ");
+            sql.append(AnyLogicDBUtil.sanitizeColumnName(header));
+        }
+        sql.append(") VALUES (").append(String.join(",", Collections.nCopies(columnDefs.size(), "?"))).append(")");
+
+        long intervalSeconds = intervalMinutes * 60L;
+        double[] sums = new double[columns];
+        int[] counts = new int[columns];
+        String[] firsts = new String[columns];
+        long bucket = Long.MIN_VALUE;
+        long rowsRead = 0;
+        long rowsSkipped = 0;
+        long written = 0;
+        int batchCount = 0;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            Iterator<String[]> it = concat(sample.iterator(), rest);
+            while (it.hasNext()) {
+                String[] row = it.next();
+                rowsRead++;
+                LocalDateTime time = timeCol < row.length ? parseTimestamp(row[timeCol]) : null;
+                if (time == null) {
+                    rowsSkipped++;
+                    continue;
+                }
+                long epoch = time.toEpochSecond(ZoneOffset.UTC);
+                long rowBucket = Math.floorDiv(epoch, intervalSeconds) * intervalSeconds;
+
+                if (rowBucket != bucket) {
+                    if (bucket != Long.MIN_VALUE) {
+                        if (rowBucket < bucket) {
+                            System.err.println("Warnung: Zeitstempel nicht aufsteigend sortiert bei " + time + "."); // Warning: timestamps not sorted ascending
+                        }
+                        bindBucket(ps, bucket, timeCol, aggregations, sums, counts, firsts);
+                        written++;
+                        if (++batchCount >= BATCH_SIZE) {
+                            ps.executeBatch();
+                            ps.clearBatch();
+                            batchCount = 0;
+                        }
+                    }
+                    bucket = rowBucket;
+                    Arrays.fill(sums, 0.0);
+                    Arrays.fill(counts, 0);
+                    Arrays.fill(firsts, null);
+                }
+
+                for (int c = 0; c < columns; c++) {
+                    if (c == timeCol || c >= row.length) continue;
+                    String value = row[c];
+                    if (numeric[c]) {
+                        double v = parseNumber(value, decimalComma);
+                        if (!Double.isNaN(v)) {
+                            sums[c] += v;
+                            counts[c]++;
+                        }
+                    } else if (firsts[c] == null && value != null && !value.isEmpty()) {
+                        firsts[c] = value;
+                    }
+                }
+            }
+            if (bucket != Long.MIN_VALUE) {
+                bindBucket(ps, bucket, timeCol, aggregations, sums, counts, firsts);
+                written++;
+                batchCount++;
+            }
+            if (batchCount > 0) {
+                ps.executeBatch();
+                ps.clearBatch();
+            }
+        }
+
+        System.out.println(rowsRead + " Zeilen gelesen, " + written + " Intervalle in Tabelle "
+                + AnyLogicDBUtil.sanitizeTableName(tableName) + " geschrieben"
+                + (rowsSkipped > 0 ? ", " + rowsSkipped + " Zeilen ohne gültigen Zeitstempel übersprungen." : ".")); // ... rows read, ... intervals written, ... rows without valid timestamp skipped
+        return written;
+    }
+
+    private static void bindBucket(PreparedStatement ps, long bucket, int timeCol, Aggregation[] aggregations,
+                                   double[] sums, int[] counts, String[] firsts) throws SQLException {
+        for (int c = 0; c < aggregations.length; c++) {
+            if (c == timeCol) {
+                ps.setTimestamp(c + 1, Timestamp.valueOf(LocalDateTime.ofEpochSecond(bucket, 0, ZoneOffset.UTC)));
+                continue;
+            }
+            switch (aggregations[c]) {
+                case SUM:
+                    if (counts[c] > 0) ps.setDouble(c + 1, sums[c]); else ps.setNull(c + 1, Types.DOUBLE);
+                    break;
+                case MEAN:
+                    if (counts[c] > 0) ps.setDouble(c + 1, sums[c] / counts[c]); else ps.setNull(c + 1, Types.DOUBLE);
+                    break;
+                default:
+                    if (firsts[c] != null) ps.setString(c + 1, firsts[c]); else ps.setNull(c + 1, Types.VARCHAR);
+            }
+        }
+        ps.addBatch();
+    }
+
+    private Aggregation aggregationFor(String header) {
+        String h = header == null ? "" : header.trim().toLowerCase();
+        Aggregation override = overrides.get(h);
+        if (override != null) return override;
+        if (h.contains("price") || h.contains("preis") || h.contains("€") || h.contains("eur")) {
+            return Aggregation.MEAN;
+        }
+        if (h.contains("kwh") || h.contains("wh") || h.contains("energy") || h.contains("energie")) {
+            return Aggregation.SUM;
+        }
+        // Power, irradiance, temperature etc. are rates and must be averaged
+        return Aggregation.MEAN;
+    }
+
+    private int detectTimeColumn(String[] headers, List<String[]> sample) {
+        for (int c = 0; c < headers.length; c++) {
+            if (!isTimeHeader(headers[c])) continue;
+            for (String[] row : sample) {
+                if (c < row.length && parseTimestamp(row[c]) != null) {
+                    return c;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int findTimeHeader(String[] headers) {
+        for (int c = 0; c < headers.length; c++) {
+            if (isTimeHeader(headers[c])) return c;
+        }
+        return -1;
+    }
+
+    private static boolean isTimeHeader(String header) {
+        if (header == null) return false;
+        String h = header.toLowerCase();
+        return h.contains("time") || h.contains("zeit") || h.contains("datum") || h.contains("date");
+    }
+
+    private static boolean isNumericColumn(List<String[]> sample, int col, boolean decimalComma) {
+        boolean any = false;
+        for (String[] row : sample) {
+            if (col >= row.length || row[col] == null || row[col].isEmpty() || "-".equals(row[col])) continue;
+            if (Double.isNaN(parseNumber(row[col], decimalComma))) return false;
+            any = true;
+        }
+        return any;
+    }
+
+    // Returns NaN for missing or non-numeric values ("-" is used by SMARD for gaps)
+    private static double parseNumber(String value, boolean decimalComma) {
+        if (value == null) return Double.NaN;
+        String v = value.trim();
+        if (v.isEmpty() || "-".equals(v)) return Double.NaN;
+        if (decimalComma) {
+            v = v.replace(".", "").replace(',', '.');
+        }
+        try {
+            return Double.parseDouble(v);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private LocalDateTime parseTimestamp(String value) {
+        if (value == null || value.trim().isEmpty()) return null;
+        String v = value.trim();
+        for (int k = 0; k < TIMESTAMP_FORMATS.length; k++) {
+            int idx = (lastFormat + k) % TIMESTAMP_FORMATS.length;
+            try {
+                LocalDateTime dt = LocalDateTime.parse(v, TIMESTAMP_FORMATS[idx]);
+                lastFormat = idx;
+                return dt;
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+
+    private static char detectDelimiter(String headerLine) {
+        int semicolons = 0;
+        int commas = 0;
+        for (int i = 0; i < headerLine.length(); i++) {
+            char c = headerLine.charAt(i);
+            if (c == ';') semicolons++;
+            else if (c == ',') commas++;
+        }
+        return semicolons > commas ? ';' : ',';
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private static <T> Iterator<T> concat(Iterator<T> first, Iterator<T> second) {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || second.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return first.hasNext() ? first.next() : second.next();
+            }
+        };
+    }
+}
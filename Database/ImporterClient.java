@@ -0,0 +1,65 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Thin client for {@link ImporterDaemon}.
+ * Sends a {@link CsvImporter} command to the running daemon, prints its output
+ * and exits with the command's exit code.
+ *
+ * Usage: java ImporterClient [--port N] &lt;command&gt; [options]
+ */
+public class ImporterClient {
+
+    public static void main(String[] args) {
+        int port = ImporterDaemon.DEFAULT_PORT;
+        if (args.length >= 2 && "--port".equals(args[0])) {
+            port = Integer.parseInt(args[1]);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length == 0) {
+            System.out.println("Usage: java ImporterClient [--port N] <command> [options]");
+            System.out.println("  Commands are the same as for CsvImporter, plus 'ping' and 'shutdown'.");
+            return;
+        }
+
+        try {
+            System.exit(send(port, args, System.out));
+        } catch (IOException e) {
+            System.err.println("Keine Verbindung zum ImporterDaemon auf Port " + port + ": " + e.getMessage()); // No connection to ImporterDaemon on port
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Sends one command to the daemon and copies its output to {@code out}.
+     *
+     * @return exit code reported by the daemon (0 = success)
+     */
+    public static int send(int port, String[] args, PrintStream out) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+
+            writer.write(args.length + "\n");
+            for (String arg : args) {
+                if (arg.indexOf('\n') >= 0) {
+                    throw new IllegalArgumentException("Argumente dürfen keine Zeilenumbrüche enthalten: " + arg); // Arguments must not contain line breaks
+                }
+                writer.write(arg + "\n");
+            }
+            writer.flush();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(ImporterDaemon.END_MARKER)) {
+                    return Integer.parseInt(line.substring(ImporterDaemon.END_MARKER.length()).trim());
+                }
+                out.println(line);
+            }
+            throw new EOFException("Verbindung vom Daemon geschlossen, bevor der Befehl beendet war."); // Connection closed by daemon before the command finished.
+        }
+    }
+}
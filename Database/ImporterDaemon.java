@@ -0,0 +1,276 @@
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-running importer service.
+ * Keeps the JVM, the HSQLDB driver, POI and a pool of database connections warm
+ * and executes the regular {@link CsvImporter} commands received over a local socket.
+ * Commands are executed concurrently on a fixed thread pool; the console output of
+ * each command is routed back to the client that sent it.
+ *
+ * <p>Protocol (one command per connection, UTF-8, line based):
+ * <pre>
+ *   client: &lt;number of arguments&gt;
+ *   client: &lt;argument 1&gt;
+ *   ...
+ *   server: output lines of the command
+ *   server: #END &lt;exit code&gt; (0 = success, 1 = error, 2 = usage error)
+ * </pre>
+ * Use {@link ImporterClient} as a thin client.
+ */
+public class ImporterDaemon {
+
+    static final int DEFAULT_PORT = 9107;
+    static final String END_MARKER = "#END ";
+
+    // Key for connections opened without an explicit URL (ProjektY default)
+    private static final String DEFAULT_URL_KEY = "";
+    private static final int MAX_IDLE_PER_URL = 8;
+
+    private final int port;
+    private final ExecutorService workers;
+    private final Map<String, BlockingDeque<Connection>> idleConnections = new ConcurrentHashMap<>();
+    private final RoutingOutputStream routedOut;
+    private final RoutingOutputStream routedErr;
+    private final PrintStream log;
+    private volatile boolean running = true;
+    private ServerSocket serverSocket;
+
+    public ImporterDaemon(int port, int threads) {
+        this.port = port;
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "importer-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.log = System.out;
+        this.routedOut = new RoutingOutputStream(System.out);
+        this.routedErr = new RoutingOutputStream(System.err);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        new ImporterDaemon(port, threads).run();
+    }
+
+    /**
+     * Accepts client connections until a {@code shutdown} command is received.
+     */
+    public void run() throws IOException {
+        System.setOut(new PrintStream(routedOut, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(routedErr, true, StandardCharsets.UTF_8));
+        CsvImporter.setConnectionSource(this::acquireConnection);
+
+        // Bind to loopback only: the daemon executes arbitrary import commands
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket = server;
+            log.println("ImporterDaemon lauscht auf 127.0.0.1:" + port); // ImporterDaemon listening on
+            while (running) {
+                Socket client;
+                try {
+                    client = server.accept();
+                } catch (SocketException e) {
+                    if (!running) break; // closed by shutdown
+                    throw e;
+                }
+                workers.submit(() -> handle(client));
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void handle(Socket client) {
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+
+            String[] args;
+            try {
+                args = readArguments(in);
+            } catch (IllegalArgumentException e) {
+                // Malformed request: answer as usage error instead of dropping the connection
+                out.write(("Ungültige Anfrage: " + e.getMessage() + "\n" // Invalid request
+                        + END_MARKER + CsvImporter.EXIT_USAGE + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                return;
+            }
+            int exitCode = 0;
+            routedOut.route(out);
+            routedErr.route(out);
+            try {
+                if (args.length == 1 && "shutdown".equalsIgnoreCase(args[0])) {
+                    System.out.println("ImporterDaemon wird beendet."); // ImporterDaemon is shutting down.
+                    running = false;
+                    serverSocket.close();
+                } else if (args.length == 1 && "ping".equalsIgnoreCase(args[0])) {
+                    System.out.println("pong");
+                } else {
+                    exitCode = CsvImporter.execute(args);
+                }
+            } catch (Exception e) {
+                System.err.println("An error occurred: " + e.getMessage());
+                e.printStackTrace();
+                exitCode = 1;
+            } finally {
+                System.out.flush();
+                System.err.flush();
+                routedOut.route(null);
+                routedErr.route(null);
+            }
+            out.write((END_MARKER + exitCode + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            log.println("Client-Verbindung abgebrochen: " + e.getMessage()); // Client connection aborted
+        }
+    }
+
+    // Throws IllegalArgumentException for a count line that is no non-negative number
+    private static String[] readArguments(BufferedReader in) throws IOException {
+        String countLine = in.readLine();
+        if (countLine == null) {
+            throw new EOFException("Keine Argumente empfangen"); // No arguments received
+        }
+        int count;
+        try {
+            count = Integer.parseInt(countLine.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Argumentanzahl ist keine Zahl: '" + countLine + "'"); // Argument count is not a number
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative Argumentanzahl: " + count); // Negative argument count
+        }
+        List<String> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String arg = in.readLine();
+            if (arg == null) {
+                throw new EOFException("Erwartet " + count + " Argumente, erhalten " + i); // Expected ... arguments, received
+            }
+            args.add(arg);
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Hands out an idle pooled connection for the URL or opens a new one.
+     * The returned connection goes back to the pool when the command closes it.
+     */
+    private Connection acquireConnection(String jdbcUrl) throws SQLException {
+        String key = jdbcUrl == null ? DEFAULT_URL_KEY : jdbcUrl.trim();
+        BlockingDeque<Connection> idle = idleConnections.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+
+        Connection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            if (physical.isValid(1)) break;
+            closeQuietly(physical);
+        }
+        if (physical == null) {
+            physical = CsvImporter.openDirectConnection(key.isEmpty() ? null : key);
+        }
+        return pooled(physical, idle);
+    }
+
+    private Connection pooled(Connection physical, BlockingDeque<Connection> idle) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, methodArgs) -> {
+                    if ("isClosed".equals(method.getName()) && closed.get()) {
+                        return true;
+                    }
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        if (!closed.compareAndSet(false, true)) {
+                            return null;
+                        }
+                        if (!physical.getAutoCommit()) {
+                            physical.rollback();
+                            physical.setAutoCommit(true);
+                        }
+                        if (!running || !idle.offerFirst(physical) || idle.size() > MAX_IDLE_PER_URL) {
+                            idle.remove(physical);
+                            physical.close();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(physical, methodArgs);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void shutdown() {
+        running = false;
+        workers.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (BlockingDeque<Connection> idle : idleConnections.values()) {
+            Connection c;
+            while ((c = idle.pollFirst()) != null) {
+                closeQuietly(c);
+            }
+        }
+        log.println("ImporterDaemon beendet."); // ImporterDaemon stopped.
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Output stream that writes to the stream registered for the current thread,
+     * or to the daemon's console if none is registered.
+     */
+    private static final class RoutingOutputStream extends OutputStream {
+        private final OutputStream fallback;
+        private final ThreadLocal<OutputStream> target = new ThreadLocal<>();
+
+        RoutingOutputStream(OutputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        void route(OutputStream out) {
+            if (out == null) target.remove(); else target.set(out);
+        }
+
+        private OutputStream current() {
+            OutputStream out = target.get();
+            return out != null ? out : fallback;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class HeatPump {
+
+    // --- Temperature grid of the lookup tables [°C] ---
+    private static final double MIN_TEMPERATURE = -30.0;
+    private static final double MAX_TEMPERATURE = 40.0;
+    private static final double RESOLUTION = 0.1;
+    private static final int GRID_SIZE = (int) Math.round((MAX_TEMPERATURE - MIN_TEMPERATURE) / RESOLUTION) + 1;
+
+    private static final Map<String, HeatPump> SHARED = new ConcurrentHashMap<>();
+
+    private final HeatPumpModel model;
+    private final double flowTemperature;      // Supply temperature of the heating circuit [°C]
+    private final double[] cop;                // COP per grid temperature
+    private final double[] electricityPerHeat; // 1 / COP per grid temperature [kWh_el / kWh_th]
+
+    // Heat pump of a model running at a fixed flow temperature. COP and electricity per kWh of heat are
+    // tabulated once over -30..40 °C in 0.1 K steps and interpolated linearly, no curve formula per step
+    private HeatPump(HeatPumpModel model, double flowTemperature) {
+        this.model = model;
+        this.flowTemperature = flowTemperature;
+        this.cop = new double[GRID_SIZE];
+        this.electricityPerHeat = new double[GRID_SIZE];
+        for (int i = 0; i < GRID_SIZE; i++) {
+            double c = model.cop(MIN_TEMPERATURE + i * RESOLUTION, flowTemperature);
+            cop[i] = c;
+            electricityPerHeat[i] = 1.0 / c;
+        }
+    }
+
+    // Shared instance per model and flow temperature, the tables are only computed once per JVM
+    public static HeatPump of(HeatPumpModel model, double flowTemperature) {
+        String key = model.key() + "|" + flowTemperature;
+        HeatPump heatPump = SHARED.get(key);
+        if (heatPump == null) {
+            heatPump = new HeatPump(model, flowTemperature);
+            HeatPump existing = SHARED.putIfAbsent(key, heatPump);
+            if (existing != null) {
+                heatPump = existing;
+            }
+        }
+        return heatPump;
+    }
+
+    // COP at the outdoor temperature [°C], outside of the grid the border value is used
+    public double getCop(double outdoorTemperature) {
+        return interpolate(cop, outdoorTemperature);
+    }
+
+    // Electricity needed for the heat demand of one step [kWh], demand above the nominal output
+    // of the compressor is covered by the electric backup heater (COP 1)
+    public double electricalDemand(double outdoorTemperature, double heatDemand, double stepHours) {
+        double maxHeat = model.getNominalHeatOutput() * stepHours;
+        double byCompressor = heatDemand < maxHeat ? heatDemand : maxHeat;
+        return byCompressor * interpolate(electricityPerHeat, outdoorTemperature) + (heatDemand - byCompressor);
+    }
+
+    // Yearly electrical load of the heat pump [kWh per step] from outdoor temperature [°C] and heat demand [kWh per step]
+    public double[] loadSeries(double[] outdoorTemperature, double[] heatDemand, int intervalMinutes) {
+        int steps = Math.min(outdoorTemperature.length, heatDemand.length);
+        double[] load = new double[steps];
+        double maxHeat = model.getNominalHeatOutput() * intervalMinutes / 60.0;
+        double[] table = electricityPerHeat;
+        int last = GRID_SIZE - 1;
+        for (int t = 0; t < steps; t++) {
+            double x = (outdoorTemperature[t] - MIN_TEMPERATURE) / RESOLUTION;
+            x = x < 0 ? 0 : x > last ? last : x;
+            int i = x < last ? (int) x : last - 1;
+            double f = x - i;
+            double perHeat = table[i] + f * (table[i + 1] - table[i]);
+
+            double demand = heatDemand[t];
+            double byCompressor = demand < maxHeat ? demand : maxHeat;
+            load[t] = byCompressor * perHeat + (demand - byCompressor);
+        }
+        return load;
+    }
+
+    // Same as loadSeries, with both series read from imported tables (ordered by their time column)
+    public double[] loadSeries(Connection conn,
+                               String temperatureTable, String temperatureTimeColumn, String temperatureColumn,
+                               String heatTable, String heatTimeColumn, String heatColumn,
+                               int intervalMinutes) throws SQLException {
+        double[] temperature = AnyLogicDBUtil.getColumnValues(conn, temperatureTable, temperatureTimeColumn, temperatureColumn);
+        double[] heat = AnyLogicDBUtil.getColumnValues(conn, heatTable, heatTimeColumn, heatColumn);
+        if (temperature.length != heat.length) {
+            throw new IllegalArgumentException("Temperature and heat demand tables differ in length: "
+                    + temperature.length + " != " + heat.length);
+        }
+        return loadSeries(temperature, heat, intervalMinutes);
+    }
+
+    private static double interpolate(double[] table, double temperature) {
+        int last = GRID_SIZE - 1;
+        double x = (temperature - MIN_TEMPERATURE) / RESOLUTION;
+        x = x < 0 ? 0 : x > last ? last : x;
+        int i = x < last ? (int) x : last - 1;
+        double f = x - i;
+        return table[i] + f * (table[i + 1] - table[i]);
+    }
+
+    // Getter
+    public HeatPumpModel getModel() {
+        return model;
+    }
+
+    public double getFlowTemperature() {
+        return flowTemperature;
+    }
+}
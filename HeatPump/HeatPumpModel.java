@@ -0,0 +1,55 @@
+public final class HeatPumpModel {
+
+    private static final double KELVIN = 273.15;
+
+    // --- Parameters ---
+    private final String name;
+    private final double nominalHeatOutput; // Max. thermal output of the compressor [kW]
+    private final double qualityGrade;      // Share of the Carnot COP that is reached (typically 0.35 - 0.5)
+    private final double approach;          // Temperature difference at each heat exchanger [K]
+    private final double maxCop;            // Upper limit of the COP, e.g. at very small temperature lift
+
+    // Air-source heat pump described by a quality grade of the Carnot COP:
+    // COP = qualityGrade * T_sink / (T_sink - T_source) with T_sink = flow + approach, T_source = outdoor - approach
+    public HeatPumpModel(String name, double nominalHeatOutput, double qualityGrade, double approach, double maxCop) {
+        if (nominalHeatOutput <= 0 || qualityGrade <= 0 || maxCop < 1) {
+            throw new IllegalArgumentException("Invalid heat pump parameters for " + name);
+        }
+        this.name = name;
+        this.nominalHeatOutput = nominalHeatOutput;
+        this.qualityGrade = qualityGrade;
+        this.approach = approach;
+        this.maxCop = maxCop;
+    }
+
+    public HeatPumpModel(String name, double nominalHeatOutput, double qualityGrade) {
+        this(name, nominalHeatOutput, qualityGrade, 5.0, 7.0);
+    }
+
+    // COP at the given outdoor and flow temperature [°C], never below 1 (direct electric heating)
+    public double cop(double outdoorTemperature, double flowTemperature) {
+        double sink = flowTemperature + approach + KELVIN;
+        double source = outdoorTemperature - approach + KELVIN;
+        double lift = Math.max(sink - source, 1.0);
+        double cop = qualityGrade * sink / lift;
+        return Math.max(1.0, Math.min(cop, maxCop));
+    }
+
+    // Key for caches: all parameters that influence the COP
+    String key() {
+        return name + "|" + nominalHeatOutput + "|" + qualityGrade + "|" + approach + "|" + maxCop;
+    }
+
+    // Getter
+    public String getName() {
+        return name;
+    }
+
+    public double getNominalHeatOutput() {
+        return nominalHeatOutput;
+    }
+
+    public double getQualityGrade() {
+        return qualityGrade;
+    }
+}
@@ -0,0 +1,187 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class LoadProfileGenerator {
+
+    // Hourly shape of a household day, roughly following the BDEW H0 standard profile (relative values)
+    private static final double[] STANDARD_WEEKDAY = {
+            0.55, 0.45, 0.40, 0.38, 0.38, 0.42, 0.60, 0.85, 0.90, 0.85, 0.82, 0.85,
+            0.95, 0.90, 0.80, 0.75, 0.80, 0.95, 1.15, 1.30, 1.30, 1.20, 1.00, 0.75};
+    private static final double[] STANDARD_SATURDAY = {
+            0.60, 0.50, 0.43, 0.40, 0.38, 0.40, 0.48, 0.65, 0.85, 1.00, 1.05, 1.10,
+            1.15, 1.05, 0.95, 0.90, 0.90, 1.00, 1.15, 1.25, 1.25, 1.15, 1.00, 0.80};
+    private static final double[] STANDARD_SUNDAY = {
+            0.65, 0.52, 0.45, 0.40, 0.38, 0.38, 0.42, 0.52, 0.75, 1.00, 1.15, 1.30,
+            1.40, 1.20, 1.00, 0.90, 0.90, 0.98, 1.10, 1.20, 1.20, 1.10, 0.95, 0.75};
+
+    private static final Map<String, double[]> SHARED = new ConcurrentHashMap<>();
+
+    // --- Daily curves (same number of equally spaced values per day, e.g. 24 or 96) ---
+    private final double[] weekday;
+    private final double[] saturday;
+    private final double[] sunday;   // Also used for holidays
+
+    // --- Variation ---
+    private double seasonalAmplitude = 0.15; // Relative amplitude of the yearly cosine
+    private int peakDayOfYear = 15;          // Day with the highest consumption (mid January)
+    private double noiseSigma = 0.2;         // Log-normal sigma of the per-step noise
+    private double noiseCorrelation = 0.7;   // AR(1) correlation of the noise from step to step
+    private double dailySigma = 0.1;         // Log-normal sigma of a per-day level factor
+    private final Set<LocalDate> holidays = new HashSet<>();
+
+    // Expands daily curves (weekday, saturday, sunday/holiday) to full years. Only the shape of the curves
+    // matters, every generated series is scaled to the requested yearly consumption
+    public LoadProfileGenerator(double[] weekday, double[] saturday, double[] sunday) {
+        if (weekday.length == 0 || weekday.length != saturday.length || weekday.length != sunday.length) {
+            throw new IllegalArgumentException("Daily curves must be non-empty and of equal length");
+        }
+        this.weekday = weekday.clone();
+        this.saturday = saturday.clone();
+        this.sunday = sunday.clone();
+    }
+
+    // Household standard profile with hourly curves
+    public static LoadProfileGenerator standardHousehold() {
+        return new LoadProfileGenerator(STANDARD_WEEKDAY, STANDARD_SATURDAY, STANDARD_SUNDAY);
+    }
+
+    // Measured or standard curves from an imported table with one row per value of the day
+    public static LoadProfileGenerator fromTable(Connection conn, String table, String orderColumn,
+                                                 String weekdayColumn, String saturdayColumn, String sundayColumn)
+            throws SQLException {
+        return new LoadProfileGenerator(
+                AnyLogicDBUtil.getColumnValues(conn, table, orderColumn, weekdayColumn),
+                AnyLogicDBUtil.getColumnValues(conn, table, orderColumn, saturdayColumn),
+                AnyLogicDBUtil.getColumnValues(conn, table, orderColumn, sundayColumn));
+    }
+
+    public LoadProfileGenerator setSeasonality(double amplitude, int peakDayOfYear) {
+        this.seasonalAmplitude = amplitude;
+        this.peakDayOfYear = peakDayOfYear;
+        return this;
+    }
+
+    // sigma 0 switches the noise off
+    public LoadProfileGenerator setNoise(double stepSigma, double stepCorrelation, double dailySigma) {
+        if (stepCorrelation < 0 || stepCorrelation >= 1) {
+            throw new IllegalArgumentException("Correlation must lie within [0, 1)");
+        }
+        this.noiseSigma = stepSigma;
+        this.noiseCorrelation = stepCorrelation;
+        this.dailySigma = dailySigma;
+        return this;
+    }
+
+    public LoadProfileGenerator addHolidays(Set<LocalDate> dates) {
+        holidays.addAll(dates);
+        return this;
+    }
+
+    // Load of every step [kWh] for the simulation grid start + t * intervalMinutes, scaled to annualConsumption [kWh/year].
+    // The same seed always gives the same series
+    public double[] generate(LocalDateTime start, int intervalMinutes, int steps, double annualConsumption, long seed) {
+        if (1440 % intervalMinutes != 0) {
+            throw new IllegalArgumentException("Interval must divide the day: " + intervalMinutes);
+        }
+        int stepsPerDay = 1440 / intervalMinutes;
+        double[][] days = {expand(weekday, stepsPerDay), expand(saturday, stepsPerDay), expand(sunday, stepsPerDay)};
+
+        Random random = new Random(seed);
+        double[] load = new double[steps];
+        double innovation = Math.sqrt(1 - noiseCorrelation * noiseCorrelation);
+        double noise = 0;
+
+        LocalDate date = start.toLocalDate();
+        int stepOfDay = (start.getHour() * 60 + start.getMinute()) / intervalMinutes;
+        double[] curve = days[dayType(date)];
+        double dayFactor = dayFactor(date, random);
+
+        for (int t = 0; t < steps; t++) {
+            if (stepOfDay == stepsPerDay) {
+                date = date.plusDays(1);
+                stepOfDay = 0;
+                curve = days[dayType(date)];
+                dayFactor = dayFactor(date, random);
+            }
+            double value = curve[stepOfDay] * dayFactor;
+            if (noiseSigma > 0) {
+                noise = noiseCorrelation * noise + innovation * random.nextGaussian();
+                value *= Math.exp(noiseSigma * noise - noiseSigma * noiseSigma / 2);
+            }
+            load[t] = value;
+            stepOfDay++;
+        }
+
+        // Scale to the yearly consumption (partial years pro rata)
+        double sum = 0;
+        for (double v : load) {
+            sum += v;
+        }
+        double years = steps / (365.0 * stepsPerDay);
+        double scale = sum > 0 ? annualConsumption * years / sum : 0;
+        for (int t = 0; t < steps; t++) {
+            load[t] *= scale;
+        }
+        return load;
+    }
+
+    // Same as generate, but every parameter combination is only generated once per JVM.
+    // The returned array is shared and must not be modified
+    public double[] shared(LocalDateTime start, int intervalMinutes, int steps, double annualConsumption, long seed) {
+        String key = Arrays.toString(weekday) + Arrays.toString(saturday) + Arrays.toString(sunday)
+                + "|" + seasonalAmplitude + "|" + peakDayOfYear + "|" + noiseSigma + "|" + noiseCorrelation
+                + "|" + dailySigma + "|" + new TreeSet<>(holidays)
+                + "|" + start + "|" + intervalMinutes + "|" + steps + "|" + annualConsumption + "|" + seed;
+        double[] load = SHARED.get(key);
+        if (load == null) {
+            load = generate(start, intervalMinutes, steps, annualConsumption, seed);
+            double[] existing = SHARED.putIfAbsent(key, load);
+            if (existing != null) {
+                load = existing;
+            }
+        }
+        return load;
+    }
+
+    private int dayType(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        if (day == DayOfWeek.SUNDAY || holidays.contains(date)) {
+            return 2;
+        }
+        return day == DayOfWeek.SATURDAY ? 1 : 0;
+    }
+
+    // Seasonal cosine times a random level of the day
+    private double dayFactor(LocalDate date, Random random) {
+        double season = 1 + seasonalAmplitude * Math.cos(2 * Math.PI * (date.getDayOfYear() - peakDayOfYear) / 365.0);
+        if (dailySigma <= 0) {
+            return season;
+        }
+        return season * Math.exp(dailySigma * random.nextGaussian() - dailySigma * dailySigma / 2);
+    }
+
+    // Periodic linear interpolation of a daily curve (values at the middle of their periods) to stepsPerDay values
+    private static double[] expand(double[] curve, int stepsPerDay) {
+        int n = curve.length;
+        double[] day = new double[stepsPerDay];
+        for (int s = 0; s < stepsPerDay; s++) {
+            double x = (s + 0.5) * n / stepsPerDay - 0.5;
+            int i = (int) Math.floor(x);
+            double f = x - i;
+            double a = curve[Math.floorMod(i, n)];
+            double b = curve[Math.floorMod(i + 1, n)];
+            day[s] = a + f * (b - a);
+        }
+        return day;
+    }
+}
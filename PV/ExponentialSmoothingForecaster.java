@@ -0,0 +1,42 @@
+public class ExponentialSmoothingForecaster implements ProductionForecaster
+{
+    private final double alpha;   // Weight of the newest observation (0..1]
+    private double level;
+    private boolean initialised;
+
+    // Simple exponential smoothing, O(1) per step and no history
+    public ExponentialSmoothingForecaster(double alpha)
+    {
+        if (alpha <= 0 || alpha > 1)
+        {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    @Override
+    public void observe(double production)
+    {
+        if (!initialised)
+        {
+            level = production;
+            initialised = true;
+        }
+        else
+        {
+            level += alpha * (production - level);
+        }
+    }
+
+    @Override
+    public double forecast(int stepsAhead)
+    {
+        return level;
+    }
+
+    @Override
+    public double forecastSum(int steps)
+    {
+        return level * steps;
+    }
+}
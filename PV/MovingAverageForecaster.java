@@ -0,0 +1,37 @@
+public class MovingAverageForecaster implements ProductionForecaster
+{
+    private final int window;
+    private final ProductionHistory history;
+    private double windowSum;
+
+    // Average of the last window steps, updated in O(1) per step
+    public MovingAverageForecaster(int window)
+    {
+        this.window = window;
+        this.history = new ProductionHistory(window);
+    }
+
+    @Override
+    public void observe(double production)
+    {
+        if (history.size() == window)
+        {
+            windowSum -= history.get(window - 1);
+        }
+        history.add(production);
+        windowSum += production;
+    }
+
+    @Override
+    public double forecast(int stepsAhead)
+    {
+        int n = history.size();
+        return n == 0 ? 0.0 : windowSum / n;
+    }
+
+    @Override
+    public double forecastSum(int steps)
+    {
+        return forecast(1) * steps;
+    }
+}
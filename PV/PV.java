@@ -1,20 +1,77 @@
 public class PV
 {
+    private static final double AGING_FACTOR = 0.008;
+    private static final int MAX_AGE_YEARS = 50;
+
+    // (1 - aging_factor)^year, shared by all instances
+    private static final double[] AGE_FACTORS = new double[MAX_AGE_YEARS + 1];
+
+    static
+    {
+        for (int year = 0; year <= MAX_AGE_YEARS; year++)
+        {
+            AGE_FACTORS[year] = Math.pow(1 - AGING_FACTOR, year);
+        }
+    }
+
     private final double module_kWp;
     private final int module_count;
 
+    private final ProductionProfile profile;
+    private final double kWp_Factor;
+
+    // Default as planned for the database version: average of the last 3 timeslots
+    private ProductionForecaster forecaster = new MovingAverageForecaster(3);
+
     public PV(double module_kWp,
               double roof_length,
               double roof_width,
               double pv_module_length,
               double pv_module_width)
     {
+        this(ProductionProfile.EMPTY, module_kWp, roof_length, roof_width, pv_module_length, pv_module_width);
+    }
+
+    public PV(ProductionProfile profile,
+              double module_kWp,
+              double roof_length,
+              double roof_width,
+              double pv_module_length,
+              double pv_module_width)
+    {
+        this(profile, module_kWp, pvCount(roof_length, roof_width, pv_module_length, pv_module_width));
+    }
+
+    // Modules spread over several roof faces, each face uses the cached profile of its orientation
+    public PV(YieldModel yieldModel,
+              double module_kWp,
+              double pv_module_length,
+              double pv_module_width,
+              RoofFace... faces)
+    {
+        this(yieldModel, module_kWp, faces, moduleCounts(faces, pv_module_length, pv_module_width));
+    }
+
+    private PV(YieldModel yieldModel, double module_kWp, RoofFace[] faces, int[] counts)
+    {
+        this(yieldModel.profile(faces, counts), module_kWp, sum(counts));
+    }
+
+    // Lightweight view on a shared profile, e.g. for sweeps over the module count
+    public PV(ProductionProfile profile, double module_kWp, int module_count)
+    {
+        this.profile = profile;
         this.module_kWp = module_kWp;
+        this.module_count = module_count;
 
-        module_count = pvCount(roof_length, roof_width, pv_module_length, pv_module_width);
+        double total_kWp = module_count * module_kWp;
+
+        double data_kWp = 1; // profile is already normalised to 1 kWp
+
+        this.kWp_Factor = total_kWp / data_kWp;
     }
 
-    private int pvCount(double roof_length, double roof_width, double pv_module_length, double pv_module_width)
+    static int pvCount(double roof_length, double roof_width, double pv_module_length, double pv_module_width)
     {
         double usable_roof_modifier = 0.75;
 
@@ -23,33 +80,86 @@ public class PV
         return (int) (count_length * count_width * usable_roof_modifier);
     }
 
-    private double getAgeFactor()
+    private static int[] moduleCounts(RoofFace[] faces, double pv_module_length, double pv_module_width)
     {
-        double age = 0;  //TODO: Convert Sim time into the age of the panels in years
-        double aging_factor = 0.008;
-        return Math.pow(1 - aging_factor, age);
+        int[] counts = new int[faces.length];
+        for (int f = 0; f < faces.length; f++)
+        {
+            counts[f] = faces[f].moduleCount(pv_module_length, pv_module_width);
+        }
+        return counts;
     }
 
-    public double calculateCurrentProduction()
+    private static int sum(int[] values)
     {
-        double base_kWh = 0; // TODO: Get current value from Database
+        int sum = 0;
+        for (int v : values)
+        {
+            sum += v;
+        }
+        return sum;
+    }
 
-        double total_kWp = module_count * module_kWp;
+    private double getAgeFactor(int step)
+    {
+        int age = step / profile.getStepsPerYear();
+        return AGE_FACTORS[Math.min(age, MAX_AGE_YEARS)];
+    }
 
-        double data_kWp = 1;
+    // Production at the given simulation step [kWh], step 0 is the first step of the first year
+    public double calculateCurrentProduction(int step)
+    {
+        double base_kWh = profile.get(step);
 
-        double kWp_Factor = total_kWp / data_kWp;
+        return base_kWh * kWp_Factor * getAgeFactor(step);
+    }
 
-        return base_kWh * kWp_Factor * getAgeFactor();
+    // Calculates the production of the step and feeds it to the forecaster, call once per step
+    public double advance(int step)
+    {
+        double production = calculateCurrentProduction(step);
+        forecaster.observe(production);
+        return production;
     }
+
+    // Average forecast production per step for the steps start..end ahead (1 = next step) [kWh]
     public double forecastFutureProduction(int start, int end )
     {
-        //TODO: Get production for last 3 timeslots from Database
+        if (end < start)
+        {
+            return 0;
+        }
+        double sum = 0;
+        for (int k = start; k <= end; k++)
+        {
+            sum += forecaster.forecast(k);
+        }
+        return sum / (end - start + 1);
+    }
+
+    public void setForecaster(ProductionForecaster forecaster)
+    {
+        this.forecaster = forecaster;
+    }
+
+    public ProductionForecaster getForecaster()
+    {
+        return forecaster;
+    }
+
+    // Getter
+    public int getModuleCount()
+    {
+        return module_count;
+    }
 
-        double p1 = 0;
-        double p2 = 0;
-        double p3 = 0;
+    public double getTotal_kWp()
+    {
+        return module_count * module_kWp;
+    }
 
-        return (p1 + p2 + p3) /  3;
+    public ProductionProfile getProfile()
+    {
+        return profile;
     }
 }
@@ -0,0 +1,19 @@
+public interface ProductionForecaster
+{
+    // Called once per simulation step with the production that actually occurred [kWh]
+    void observe(double production);
+
+    // Forecast for the step that lies stepsAhead steps after the last observed one (1 = next step) [kWh]
+    double forecast(int stepsAhead);
+
+    // Total forecast for the next steps steps [kWh]
+    default double forecastSum(int steps)
+    {
+        double sum = 0;
+        for (int k = 1; k <= steps; k++)
+        {
+            sum += forecast(k);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,51 @@
+public final class ProductionHistory
+{
+    private final double[] buffer;
+    private int next;   // Index the next value is written to
+    private int count;  // Number of valid values (<= capacity)
+
+    // Fixed-size ring buffer of the most recent production values
+    public ProductionHistory(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.buffer = new double[capacity];
+    }
+
+    public void add(double value)
+    {
+        buffer[next] = value;
+        next = next + 1 == buffer.length ? 0 : next + 1;
+        if (count < buffer.length)
+        {
+            count++;
+        }
+    }
+
+    // Value stepsBack steps before the latest one (0 = latest), NaN if not yet recorded
+    public double get(int stepsBack)
+    {
+        if (stepsBack < 0 || stepsBack >= count)
+        {
+            return Double.NaN;
+        }
+        int index = next - 1 - stepsBack;
+        if (index < 0)
+        {
+            index += buffer.length;
+        }
+        return buffer[index];
+    }
+
+    public int size()
+    {
+        return count;
+    }
+
+    public int capacity()
+    {
+        return buffer.length;
+    }
+}
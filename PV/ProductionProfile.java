@@ -0,0 +1,99 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ProductionProfile
+{
+    // Profile that produces nothing, used when no data is available
+    public static final ProductionProfile EMPTY = new ProductionProfile(new double[]{0.0}, 60);
+
+    private static final Map<String, ProductionProfile> SHARED = new ConcurrentHashMap<>();
+
+    private final double[] kWhPerKWp;   // Production per installed kWp for every time step [kWh/kWp]
+    private final int intervalMinutes;  // Length of one time step
+    private final int stepsPerYear;
+
+    // Immutable per-kWp production series shared by all PV instances
+    public ProductionProfile(double[] kWhPerKWp, int intervalMinutes)
+    {
+        if (kWhPerKWp.length == 0)
+        {
+            throw new IllegalArgumentException("Profile must contain at least one value");
+        }
+        this.kWhPerKWp = kWhPerKWp.clone();
+        this.intervalMinutes = intervalMinutes;
+        this.stepsPerYear = 365 * 24 * 60 / intervalMinutes;
+    }
+
+    // Loads the profile of a PV table once and divides it by the kWp the data was generated for
+    public static ProductionProfile load(Connection conn, String table, String timeColumn, String valueColumn,
+                                         double data_kWp, int intervalMinutes) throws SQLException
+    {
+        double[] values = AnyLogicDBUtil.getColumnValues(conn, table, timeColumn, valueColumn);
+        if (data_kWp != 1)
+        {
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] /= data_kWp;
+            }
+        }
+        return new ProductionProfile(values, intervalMinutes);
+    }
+
+    // Same as load, but every table is only read once per JVM and the instance is shared
+    public static ProductionProfile shared(Connection conn, String table, String timeColumn, String valueColumn,
+                                           double data_kWp, int intervalMinutes) throws SQLException
+    {
+        String key = table.toLowerCase() + "|" + timeColumn.toLowerCase() + "|" + valueColumn.toLowerCase()
+                + "|" + data_kWp + "|" + intervalMinutes;
+        ProductionProfile profile = SHARED.get(key);
+        if (profile == null)
+        {
+            profile = load(conn, table, timeColumn, valueColumn, data_kWp, intervalMinutes);
+            ProductionProfile existing = SHARED.putIfAbsent(key, profile);
+            if (existing != null)
+            {
+                profile = existing;
+            }
+        }
+        return profile;
+    }
+
+    // Production per kWp at a time step, the profile repeats if the simulation is longer
+    public double get(int step)
+    {
+        return kWhPerKWp[step % kWhPerKWp.length];
+    }
+
+    public int length()
+    {
+        return kWhPerKWp.length;
+    }
+
+    public int getIntervalMinutes()
+    {
+        return intervalMinutes;
+    }
+
+    public int getStepsPerYear()
+    {
+        return stepsPerYear;
+    }
+
+    // Copy of the raw values for bulk processing
+    public double[] toArray()
+    {
+        return kWhPerKWp.clone();
+    }
+
+    public double sum()
+    {
+        double sum = 0;
+        for (double v : kWhPerKWp)
+        {
+            sum += v;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,51 @@
+public final class RoofFace
+{
+    private final double length;        // [m]
+    private final double width;         // [m]
+    private final double tilt;          // Inclination from horizontal [deg]
+    private final double azimuth;       // Orientation, 0 = north, 90 = east, 180 = south, 270 = west [deg]
+    private final double usableFactor;  // Share of the area that can be covered (chimneys, edges, ...)
+
+    public RoofFace(double length, double width, double tilt, double azimuth)
+    {
+        this(length, width, tilt, azimuth, 0.75);
+    }
+
+    public RoofFace(double length, double width, double tilt, double azimuth, double usableFactor)
+    {
+        this.length = length;
+        this.width = width;
+        this.tilt = tilt;
+        this.azimuth = azimuth;
+        this.usableFactor = usableFactor;
+    }
+
+    // Number of modules that fit on this face, modules may be placed in portrait or landscape
+    public int moduleCount(double pv_module_length, double pv_module_width)
+    {
+        int portrait = (int) (length / pv_module_length) * (int) (width / pv_module_width);
+        int landscape = (int) (length / pv_module_width) * (int) (width / pv_module_length);
+        return (int) (Math.max(portrait, landscape) * usableFactor);
+    }
+
+    // Getter
+    public double getTilt()
+    {
+        return tilt;
+    }
+
+    public double getAzimuth()
+    {
+        return azimuth;
+    }
+
+    public double getLength()
+    {
+        return length;
+    }
+
+    public double getWidth()
+    {
+        return width;
+    }
+}
@@ -0,0 +1,27 @@
+public class SeasonalNaiveForecaster implements ProductionForecaster
+{
+    private final int stepsPerDay;
+    private final ProductionHistory history;
+
+    // Forecasts the value of the same time yesterday, e.g. stepsPerDay = 96 for 15 minute steps
+    public SeasonalNaiveForecaster(int stepsPerDay)
+    {
+        this.stepsPerDay = stepsPerDay;
+        this.history = new ProductionHistory(stepsPerDay);
+    }
+
+    @Override
+    public void observe(double production)
+    {
+        history.add(production);
+    }
+
+    @Override
+    public double forecast(int stepsAhead)
+    {
+        // Same time of day one (or more) days before the forecast step
+        int back = stepsPerDay - 1 - ((stepsAhead - 1) % stepsPerDay);
+        double value = history.get(back);
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+}
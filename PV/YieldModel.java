@@ -0,0 +1,200 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class YieldModel
+{
+    private static final double SOLAR_CONSTANT = 1367;  // [W/m²]
+    private static final double MIN_COS_ZENITH = 0.065; // Below ~86° zenith the sun is treated as set
+
+    // Module datasheet value from PV/additionalPV.txt
+    private static final double DEFAULT_TEMPERATURE_COEFFICIENT = -0.0024; // -0.24 %/°C
+    // Assumed defaults, not given in PV/additionalPV.txt
+    private static final double DEFAULT_NOCT = 45;                         // Nominal operating cell temperature [°C], typical crystalline module datasheet value
+    private static final double DEFAULT_ALBEDO = 0.2;                      // Ground reflectance of grass / typical surroundings
+
+    private final int intervalMinutes;
+    private final double temperatureCoefficient;
+    private final double noct;
+    private final double albedo;
+
+    // Orientation independent values, computed once per step in the constructor
+    private final double[] ghi;      // Global horizontal irradiance [W/m²]
+    private final double[] dni;      // Direct normal irradiance [W/m²]
+    private final double[] dhi;      // Diffuse horizontal irradiance [W/m²]
+    private final double[] tAir;     // Ambient temperature [°C]
+    private final double[] sunEast;  // Unit vector towards the sun
+    private final double[] sunNorth;
+    private final double[] sunUp;
+
+    private final Map<Long, ProductionProfile> profiles = new ConcurrentHashMap<>();
+
+    // Converts irradiance and temperature series into per-orientation production.
+    // start is the local standard time of the first step, utcOffsetHours e.g. 1 for CET
+    public YieldModel(double[] ghi, double[] tAir, LocalDateTime start, int intervalMinutes,
+                      double latitude, double longitude, double utcOffsetHours)
+    {
+        this(ghi, tAir, start, intervalMinutes, latitude, longitude, utcOffsetHours,
+                DEFAULT_TEMPERATURE_COEFFICIENT, DEFAULT_NOCT, DEFAULT_ALBEDO);
+    }
+
+    public YieldModel(double[] ghi, double[] tAir, LocalDateTime start, int intervalMinutes,
+                      double latitude, double longitude, double utcOffsetHours,
+                      double temperatureCoefficient, double noct, double albedo)
+    {
+        if (ghi.length != tAir.length)
+        {
+            throw new IllegalArgumentException("Irradiance and temperature series differ in length");
+        }
+        int n = ghi.length;
+        this.intervalMinutes = intervalMinutes;
+        this.temperatureCoefficient = temperatureCoefficient;
+        this.noct = noct;
+        this.albedo = albedo;
+        this.ghi = ghi.clone();
+        this.tAir = tAir.clone();
+        this.dni = new double[n];
+        this.dhi = new double[n];
+        this.sunEast = new double[n];
+        this.sunNorth = new double[n];
+        this.sunUp = new double[n];
+
+        double lat = Math.toRadians(latitude);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+
+        for (int t = 0; t < n; t++)
+        {
+            // Sun position at the middle of the interval
+            LocalDateTime time = start.plusMinutes((long) t * intervalMinutes);
+            double hour = time.getHour() + (time.getMinute() + intervalMinutes / 2.0) / 60.0;
+            int dayOfYear = time.getDayOfYear();
+            double gamma = 2 * Math.PI / 365 * (dayOfYear - 1 + (hour - 12) / 24);
+
+            double declination = 0.006918 - 0.399912 * Math.cos(gamma) + 0.070257 * Math.sin(gamma)
+                    - 0.006758 * Math.cos(2 * gamma) + 0.000907 * Math.sin(2 * gamma)
+                    - 0.002697 * Math.cos(3 * gamma) + 0.00148 * Math.sin(3 * gamma);
+            double equationOfTime = 229.18 * (0.000075 + 0.001868 * Math.cos(gamma) - 0.032077 * Math.sin(gamma)
+                    - 0.014615 * Math.cos(2 * gamma) - 0.040849 * Math.sin(2 * gamma)); // [min]
+            double solarMinutes = hour * 60 + equationOfTime + 4 * longitude - 60 * utcOffsetHours;
+            double hourAngle = Math.toRadians(solarMinutes / 4 - 180);
+
+            double sinDec = Math.sin(declination);
+            double cosDec = Math.cos(declination);
+            double cosZenith = sinLat * sinDec + cosLat * cosDec * Math.cos(hourAngle);
+
+            // Sun vector in east/north/up coordinates
+            sunEast[t] = -cosDec * Math.sin(hourAngle);
+            sunNorth[t] = cosLat * sinDec - sinLat * cosDec * Math.cos(hourAngle);
+            sunUp[t] = cosZenith;
+
+            double g = Math.max(ghi[t], 0);
+            if (cosZenith < MIN_COS_ZENITH || g == 0)
+            {
+                dni[t] = 0;
+                dhi[t] = g;
+                continue;
+            }
+            // Erbs decomposition of the global irradiance into direct and diffuse part
+            double extraterrestrial = SOLAR_CONSTANT * (1 + 0.033 * Math.cos(2 * Math.PI * dayOfYear / 365));
+            double kt = Math.min(g / (extraterrestrial * cosZenith), 1.0);
+            double diffuseFraction;
+            if (kt <= 0.22)
+            {
+                diffuseFraction = 1 - 0.09 * kt;
+            }
+            else if (kt <= 0.8)
+            {
+                diffuseFraction = 0.9511 - 0.1604 * kt + 4.388 * kt * kt - 16.638 * kt * kt * kt + 12.336 * kt * kt * kt * kt;
+            }
+            else
+            {
+                diffuseFraction = 0.165;
+            }
+            dhi[t] = g * diffuseFraction;
+            dni[t] = Math.min((g - dhi[t]) / cosZenith, extraterrestrial);
+        }
+    }
+
+    // Loads irradiance and temperature columns of a weather table
+    public static YieldModel load(Connection conn, String table, String timeColumn, String ghiColumn, String temperatureColumn,
+                                  LocalDateTime start, int intervalMinutes,
+                                  double latitude, double longitude, double utcOffsetHours) throws SQLException
+    {
+        double[] ghi = AnyLogicDBUtil.getColumnValues(conn, table, timeColumn, ghiColumn);
+        double[] tAir = AnyLogicDBUtil.getColumnValues(conn, table, timeColumn, temperatureColumn);
+        return new YieldModel(ghi, tAir, start, intervalMinutes, latitude, longitude, utcOffsetHours);
+    }
+
+    // Per-kWp production for one orientation, computed once and cached (0.1° resolution)
+    public ProductionProfile profile(double tilt, double azimuth)
+    {
+        long key = Math.round(tilt * 10) * 10_000L + Math.floorMod(Math.round(azimuth * 10), 3600L);
+        return profiles.computeIfAbsent(key, k -> computeProfile(tilt, azimuth));
+    }
+
+    // Per-kWp production of several roof faces weighted by the modules placed on each of them
+    public ProductionProfile profile(RoofFace[] faces, int[] moduleCounts)
+    {
+        int n = ghi.length;
+        double[] combined = new double[n];
+        int total = 0;
+        for (int f = 0; f < faces.length; f++)
+        {
+            if (moduleCounts[f] == 0) continue;
+            ProductionProfile face = profile(faces[f].getTilt(), faces[f].getAzimuth());
+            for (int t = 0; t < n; t++)
+            {
+                combined[t] += face.get(t) * moduleCounts[f];
+            }
+            total += moduleCounts[f];
+        }
+        if (total == 0)
+        {
+            return new ProductionProfile(combined, intervalMinutes);
+        }
+        for (int t = 0; t < n; t++)
+        {
+            combined[t] /= total;
+        }
+        return new ProductionProfile(combined, intervalMinutes);
+    }
+
+    private ProductionProfile computeProfile(double tilt, double azimuth)
+    {
+        double beta = Math.toRadians(tilt);
+        double az = Math.toRadians(azimuth);
+        double normalEast = Math.sin(beta) * Math.sin(az);
+        double normalNorth = Math.sin(beta) * Math.cos(az);
+        double normalUp = Math.cos(beta);
+        double skyView = (1 + normalUp) / 2;
+        double groundView = albedo * (1 - normalUp) / 2;
+        double hours = intervalMinutes / 60.0;
+        double cellHeating = (noct - 20) / 800;
+
+        int n = ghi.length;
+        double[] kWhPerKWp = new double[n];
+        for (int t = 0; t < n; t++)
+        {
+            double cosIncidence = normalEast * sunEast[t] + normalNorth * sunNorth[t] + normalUp * sunUp[t];
+            // Isotropic sky transposition to the plane of array
+            double poa = dni[t] * Math.max(cosIncidence, 0) + dhi[t] * skyView + ghi[t] * groundView;
+            double cellTemperature = tAir[t] + cellHeating * poa;
+            double power = poa / 1000 * (1 + temperatureCoefficient * (cellTemperature - 25)); // [kW/kWp]
+            kWhPerKWp[t] = Math.max(power, 0) * hours;
+        }
+        return new ProductionProfile(kWhPerKWp, intervalMinutes);
+    }
+
+    public int length()
+    {
+        return ghi.length;
+    }
+
+    public int cachedOrientations()
+    {
+        return profiles.size();
+    }
+}
@@ -0,0 +1,122 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Runs a {@link ParameterSweep} in chunks and records the progress in a checkpoint file, so a sweep
+ * stopped by a crash or reboot resumes where it left off. The checkpoint holds the completed chunks,
+ * the incumbent (pruning continues at full strength) and the number of delivered results. It is
+ * written to a temporary file and renamed, at most once per interval and after the last chunk.
+ *
+ * A sink implementing {@link Flushable} (e.g. {@link ResultStore}) is flushed before every checkpoint,
+ * so every chunk recorded as done has reached its storage. Results of the chunks completed since the
+ * last checkpoint are delivered again after a resume.
+ */
+public class CheckpointedSweep {
+
+    private static final int MAGIC = 0x53575043; // "SWPC"
+    private static final int VERSION = 1;
+
+    private final ParameterSweep sweep;
+    private final SweepGrid grid;
+    private final Path file;
+    private int chunkSize = 4096;
+    private Duration interval = Duration.ofMinutes(1);
+
+    public CheckpointedSweep(ParameterSweep sweep, SweepGrid grid, Path file) {
+        this.sweep = sweep;
+        this.grid = grid;
+        this.file = file;
+    }
+
+    /**
+     * Candidates per chunk, 4096 by default. Must not change while a checkpoint exists.
+     */
+    public CheckpointedSweep setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Minimum time between two checkpoints, one minute by default.
+     */
+    public CheckpointedSweep setInterval(Duration interval) {
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * Evaluates all chunks that are not recorded as done in the checkpoint.
+     * A finished sweep keeps its checkpoint, running it again delivers nothing.
+     *
+     * @return number of results passed to the sink, including those of earlier runs
+     */
+    public long run(ResultSink sink) throws IOException {
+        int chunks = (int) ((grid.size() + chunkSize - 1) / chunkSize);
+        BitSet done = new BitSet(chunks);
+        DoubleAccumulator incumbent = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+        long evaluated = Files.exists(file) ? load(done, incumbent) : 0;
+
+        long lastSave = System.nanoTime();
+        for (int c = done.nextClearBit(0); c < chunks; c = done.nextClearBit(c + 1)) {
+            long from = (long) c * chunkSize;
+            evaluated += sweep.run(grid, from, Math.min(from + chunkSize, grid.size()), sink, incumbent);
+            done.set(c);
+            if (System.nanoTime() - lastSave >= interval.toNanos()) {
+                save(sink, done, incumbent.get(), evaluated);
+                lastSave = System.nanoTime();
+            }
+        }
+        save(sink, done, incumbent.get(), evaluated);
+        return evaluated;
+    }
+
+    private long load(BitSet done, DoubleAccumulator incumbent) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a sweep checkpoint: " + file);
+            }
+            if (in.readLong() != grid.fingerprint() || in.readInt() != chunkSize) {
+                throw new IOException("Checkpoint " + file + " belongs to a different grid or chunk size");
+            }
+            incumbent.accumulate(in.readDouble());
+            long evaluated = in.readLong();
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            done.or(BitSet.valueOf(words));
+            return evaluated;
+        }
+    }
+
+    private void save(ResultSink sink, BitSet done, double incumbent, long evaluated) throws IOException {
+        if (sink instanceof Flushable) {
+            ((Flushable) sink).flush();
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(grid.fingerprint());
+            out.writeInt(chunkSize);
+            out.writeDouble(incumbent);
+            out.writeLong(evaluated);
+            long[] words = done.toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
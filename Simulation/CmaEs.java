@@ -0,0 +1,281 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Covariance matrix adaptation evolution strategy (CMA-ES, Hansen's (mu/mu_w, lambda) variant).
+ * Works in the unit cube with one dimension per grid axis that has more than one value; samples
+ * are repaired into the cube and rounded to the nearest grid point. One generation is one batch,
+ * so lambda should be at least the number of worker threads.
+ */
+public class CmaEs implements OptimizationStrategy {
+
+    // Stop after this many generations without a new simulation (all samples in known cells)
+    private static final int MAX_STALLED_GENERATIONS = 10;
+
+    private final int lambda;
+    private final double initialSigma;
+    private final long seed;
+
+    public CmaEs(int lambda, double initialSigma, long seed) {
+        if (lambda < 2 || initialSigma <= 0) {
+            throw new IllegalArgumentException("lambda must be at least 2 and initialSigma positive");
+        }
+        this.lambda = lambda;
+        this.initialSigma = initialSigma;
+        this.seed = seed;
+    }
+
+    // Population size 4 + 3 ln(n) (n = 4 axes), raised to the number of processors
+    public CmaEs(long seed) {
+        this(Math.max(8, Runtime.getRuntime().availableProcessors()), 0.3, seed);
+    }
+
+    @Override
+    public EvaluationResult optimize(MemoizedEvaluator evaluator, int maxSimulations) {
+        Random random = new Random(seed);
+        int[] shape = evaluator.getGrid().shape();
+        int limit = evaluator.getSimulationCount() + maxSimulations;
+
+        int[] axes = freeAxes(shape);
+        int n = axes.length;
+        if (n == 0) {
+            return evaluator.evaluate(new int[shape.length]);
+        }
+
+        // --- Strategy parameters (defaults from Hansen, "The CMA Evolution Strategy: A Tutorial") ---
+        int mu = lambda / 2;
+        double[] weights = new double[mu];
+        double weightSum = 0;
+        for (int i = 0; i < mu; i++) {
+            weights[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+            weightSum += weights[i];
+        }
+        double weightSquares = 0;
+        for (int i = 0; i < mu; i++) {
+            weights[i] /= weightSum;
+            weightSquares += weights[i] * weights[i];
+        }
+        double mueff = 1 / weightSquares;
+        double cc = (4 + mueff / n) / (n + 4 + 2 * mueff / n);
+        double cs = (mueff + 2) / (n + mueff + 5);
+        double c1 = 2 / ((n + 1.3) * (n + 1.3) + mueff);
+        double cmu = Math.min(1 - c1, 2 * (mueff - 2 + 1 / mueff) / ((n + 2) * (n + 2) + mueff));
+        double damps = 1 + 2 * Math.max(0, Math.sqrt((mueff - 1) / (n + 1)) - 1) + cs;
+        double chiN = Math.sqrt(n) * (1 - 1.0 / (4 * n) + 1.0 / (21.0 * n * n));
+
+        // --- State ---
+        double[] mean = new double[n];
+        Arrays.fill(mean, 0.5);
+        double sigma = initialSigma;
+        double[] pc = new double[n];
+        double[] ps = new double[n];
+        double[][] c = identity(n);
+        double[][] b = identity(n);
+        double[] d = new double[n];
+        Arrays.fill(d, 1.0);
+
+        double[][] x = new double[lambda][n];
+        double[][] z = new double[lambda][n];
+        Integer[] order = new Integer[lambda];
+        EvaluationResult best = null;
+        int stalled = 0;
+        int generation = 0;
+
+        while (evaluator.getSimulationCount() < limit && stalled < MAX_STALLED_GENERATIONS && !converged(sigma, d, axes, shape)) {
+            // Sample x = m + sigma * B * D * z and repair it into the unit cube
+            List<int[]> candidates = new ArrayList<>(lambda);
+            for (int k = 0; k < lambda; k++) {
+                for (int i = 0; i < n; i++) {
+                    z[k][i] = random.nextGaussian();
+                }
+                for (int i = 0; i < n; i++) {
+                    double sum = 0;
+                    for (int j = 0; j < n; j++) {
+                        sum += b[i][j] * d[j] * z[k][j];
+                    }
+                    x[k][i] = Math.max(0, Math.min(1, mean[i] + sigma * sum));
+                }
+                candidates.add(toCoordinates(x[k], axes, shape));
+            }
+            int before = evaluator.getSimulationCount();
+            List<EvaluationResult> results = evaluator.evaluateAll(candidates);
+            stalled = evaluator.getSimulationCount() == before ? stalled + 1 : 0;
+
+            for (int k = 0; k < lambda; k++) {
+                order[k] = k;
+            }
+            Arrays.sort(order, (p, q) -> Double.compare(results.get(q).getNetSavings(), results.get(p).getNetSavings()));
+            if (best == null || results.get(order[0]).getNetSavings() > best.getNetSavings()) {
+                best = results.get(order[0]);
+            }
+
+            // Recombination: new mean from the mu best (repaired) samples
+            double[] oldMean = mean.clone();
+            Arrays.fill(mean, 0);
+            for (int r = 0; r < mu; r++) {
+                for (int i = 0; i < n; i++) {
+                    mean[i] += weights[r] * x[order[r]][i];
+                }
+            }
+            double[] step = new double[n];
+            for (int i = 0; i < n; i++) {
+                step[i] = (mean[i] - oldMean[i]) / sigma;
+            }
+
+            // Evolution paths; C^-1/2 * step = B * D^-1 * B^T * step
+            double[] bt = new double[n];
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                for (int j = 0; j < n; j++) {
+                    sum += b[j][i] * step[j];
+                }
+                bt[i] = sum / d[i];
+            }
+            double psNorm = 0;
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                for (int j = 0; j < n; j++) {
+                    sum += b[i][j] * bt[j];
+                }
+                ps[i] = (1 - cs) * ps[i] + Math.sqrt(cs * (2 - cs) * mueff) * sum;
+                psNorm += ps[i] * ps[i];
+            }
+            psNorm = Math.sqrt(psNorm);
+            generation++;
+            boolean hsig = psNorm / Math.sqrt(1 - Math.pow(1 - cs, 2.0 * generation)) / chiN < 1.4 + 2.0 / (n + 1);
+            for (int i = 0; i < n; i++) {
+                pc[i] = (1 - cc) * pc[i] + (hsig ? Math.sqrt(cc * (2 - cc) * mueff) * step[i] : 0);
+            }
+
+            // Covariance: rank-one and rank-mu update
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double rankMu = 0;
+                    for (int r = 0; r < mu; r++) {
+                        double[] xr = x[order[r]];
+                        rankMu += weights[r] * (xr[i] - oldMean[i]) * (xr[j] - oldMean[j]);
+                    }
+                    rankMu /= sigma * sigma;
+                    double value = (1 - c1 - cmu) * c[i][j]
+                            + c1 * (pc[i] * pc[j] + (hsig ? 0 : cc * (2 - cc) * c[i][j]))
+                            + cmu * rankMu;
+                    c[i][j] = value;
+                    c[j][i] = value;
+                }
+            }
+            sigma *= Math.exp((cs / damps) * (psNorm / chiN - 1));
+
+            // Decompose C = B * D^2 * B^T (n <= 4, decomposing every generation is cheap)
+            double[] eigenvalues = jacobi(c, b);
+            for (int i = 0; i < n; i++) {
+                d[i] = Math.sqrt(Math.max(eigenvalues[i], 1e-20));
+            }
+        }
+        return best != null ? best : evaluator.evaluate(toCoordinates(mean, axes, shape));
+    }
+
+    // Converged when the sampling distribution is narrower than half a grid cell on every axis
+    private static boolean converged(double sigma, double[] d, int[] axes, int[] shape) {
+        double maxD = 0;
+        for (double v : d) {
+            maxD = Math.max(maxD, v);
+        }
+        for (int axis : axes) {
+            if (sigma * maxD * (shape[axis] - 1) >= 0.5) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] freeAxes(int[] shape) {
+        int count = 0;
+        for (int size : shape) {
+            if (size > 1) count++;
+        }
+        int[] axes = new int[count];
+        int k = 0;
+        for (int axis = 0; axis < shape.length; axis++) {
+            if (shape[axis] > 1) axes[k++] = axis;
+        }
+        return axes;
+    }
+
+    private static int[] toCoordinates(double[] x, int[] axes, int[] shape) {
+        int[] coordinates = new int[shape.length];
+        for (int i = 0; i < axes.length; i++) {
+            int size = shape[axes[i]];
+            coordinates[axes[i]] = (int) Math.min(size - 1, Math.round(x[i] * (size - 1)));
+        }
+        return coordinates;
+    }
+
+    private static double[][] identity(int n) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            m[i][i] = 1;
+        }
+        return m;
+    }
+
+    // Cyclic Jacobi eigen decomposition of the symmetric matrix m, eigenvectors are written to the columns of v
+    private static double[] jacobi(double[][] m, double[][] v) {
+        int n = m.length;
+        double[][] a = new double[n][];
+        for (int i = 0; i < n; i++) {
+            a[i] = m[i].clone();
+            Arrays.fill(v[i], 0);
+            v[i][i] = 1;
+        }
+        for (int sweep = 0; sweep < 50; sweep++) {
+            double off = 0;
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    off += a[p][q] * a[p][q];
+                }
+            }
+            if (off < 1e-30) {
+                break;
+            }
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    if (a[p][q] == 0) {
+                        continue;
+                    }
+                    double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+                    if (theta == 0) {
+                        t = 1;
+                    }
+                    double cos = 1 / Math.sqrt(t * t + 1);
+                    double sin = t * cos;
+                    for (int k = 0; k < n; k++) {
+                        double akp = a[k][p];
+                        double akq = a[k][q];
+                        a[k][p] = cos * akp - sin * akq;
+                        a[k][q] = sin * akp + cos * akq;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double apk = a[p][k];
+                        double aqk = a[q][k];
+                        a[p][k] = cos * apk - sin * aqk;
+                        a[q][k] = sin * apk + cos * aqk;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double vkp = v[k][p];
+                        double vkq = v[k][q];
+                        v[k][p] = cos * vkp - sin * vkq;
+                        v[k][q] = sin * vkp + cos * vkq;
+                    }
+                }
+            }
+        }
+        double[] eigenvalues = new double[n];
+        for (int i = 0; i < n; i++) {
+            eigenvalues[i] = a[i][i];
+        }
+        return eigenvalues;
+    }
+}
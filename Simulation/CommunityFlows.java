@@ -0,0 +1,60 @@
+/**
+ * Per-step sums over all households of a community after their own PV and batteries:
+ * surplus offered to the community and deficit requested from it [kWh], plus yearly totals.
+ * Produced by {@link FleetSimulator#simulate}; the community stage for any size of shared storage
+ * is then a single pass over these arrays.
+ */
+public final class CommunityFlows {
+
+    private final double[] surplus;
+    private final double[] deficit;
+    private final int households;
+    private final double pvProduction;
+    private final double load;
+    private final double baselineCost;   // Bill of all households without PV and battery [€]
+
+    CommunityFlows(double[] surplus, double[] deficit, int households, double pvProduction, double load, double baselineCost) {
+        this.surplus = surplus;
+        this.deficit = deficit;
+        this.households = households;
+        this.pvProduction = pvProduction;
+        this.load = load;
+        this.baselineCost = baselineCost;
+    }
+
+    public int steps() {
+        return surplus.length;
+    }
+
+    public double surplus(int step) {
+        return surplus[step];
+    }
+
+    public double deficit(int step) {
+        return deficit[step];
+    }
+
+    public int getHouseholds() {
+        return households;
+    }
+
+    public double getPvProduction() {
+        return pvProduction;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    public double getBaselineCost() {
+        return baselineCost;
+    }
+
+    double[] surplusArray() {
+        return surplus;
+    }
+
+    double[] deficitArray() {
+        return deficit;
+    }
+}
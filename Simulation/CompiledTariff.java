@@ -0,0 +1,83 @@
+/**
+ * A {@link Tariff} precomputed for one simulation grid: purchase and feed-in price per step,
+ * the feed-in cap per step and the steps at which a new month (and base fee) starts.
+ * Immutable and shareable between threads; the per-step cost is added up by a {@link TariffAccumulator}.
+ */
+public final class CompiledTariff {
+
+    private final double[] purchasePrice;   // [€/kWh]
+    private final double[] feedInPrice;     // [€/kWh]
+    private final double feedInCap;         // Max. feed-in per step [kWh]
+    private final int[] monthStarts;        // First step of every (partial) month
+    private final double monthlyFee;        // [€]
+    private final int intervalMinutes;
+
+    CompiledTariff(double[] purchasePrice, double[] feedInPrice, double feedInCap, int[] monthStarts,
+                   double monthlyFee, int intervalMinutes) {
+        this.purchasePrice = purchasePrice;
+        this.feedInPrice = feedInPrice;
+        this.feedInCap = feedInCap;
+        this.monthStarts = monthStarts;
+        this.monthlyFee = monthlyFee;
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    /**
+     * Simulation input that uses the prices of this tariff (feed-in cap and fees are applied by the accumulator).
+     */
+    public SimulationInput toInput(ProductionProfile pv, double[] load) {
+        if (pv.getIntervalMinutes() != intervalMinutes) {
+            throw new IllegalArgumentException("PV profile has " + pv.getIntervalMinutes() + " minute steps, tariff "
+                    + intervalMinutes);
+        }
+        return new SimulationInput(pv, load, purchasePrice, feedInPrice);
+    }
+
+    /**
+     * Price scenario of this tariff for re-pricing cached flows (feed-in cap and fees are not applied).
+     */
+    public PriceScenario toPriceScenario(FlowCache cache) {
+        return cache.scenario(purchasePrice, feedInPrice);
+    }
+
+    public TariffAccumulator accumulator() {
+        return new TariffAccumulator(this);
+    }
+
+    public int steps() {
+        return purchasePrice.length;
+    }
+
+    public double purchasePrice(int step) {
+        return purchasePrice[step];
+    }
+
+    public double feedInPrice(int step) {
+        return feedInPrice[step];
+    }
+
+    public double getFeedInCap() {
+        return feedInCap;
+    }
+
+    public double getMonthlyFee() {
+        return monthlyFee;
+    }
+
+    public int getIntervalMinutes() {
+        return intervalMinutes;
+    }
+
+    // Direct access for the accumulator, must not be modified
+    double[] purchasePriceArray() {
+        return purchasePrice;
+    }
+
+    double[] feedInPriceArray() {
+        return feedInPrice;
+    }
+
+    int[] monthStartArray() {
+        return monthStarts;
+    }
+}
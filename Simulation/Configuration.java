@@ -0,0 +1,69 @@
+import java.util.Objects;
+
+/**
+ * One candidate of the design space: PV size, battery size and trading strategy.
+ * Immutable, usable as a map key.
+ */
+public final class Configuration {
+
+    private final int moduleCount;
+    private final double batteryKWh;        // Usable battery capacity [kWh]
+    private final double cRate;             // Max. charge/discharge power relative to capacity [1/h]
+    private final TradingStrategy strategy;
+    private final double priceThreshold;    // Only used by TradingStrategy.PRICE_THRESHOLD [€/kWh]
+
+    public Configuration(int moduleCount, double batteryKWh, double cRate, TradingStrategy strategy, double priceThreshold) {
+        this.moduleCount = moduleCount;
+        this.batteryKWh = batteryKWh;
+        this.cRate = cRate;
+        this.strategy = strategy;
+        this.priceThreshold = priceThreshold;
+    }
+
+    public Configuration(int moduleCount, double batteryKWh, double cRate, TradingStrategy strategy) {
+        this(moduleCount, batteryKWh, cRate, strategy, 0.0);
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    public double getBatteryKWh() {
+        return batteryKWh;
+    }
+
+    public double getCRate() {
+        return cRate;
+    }
+
+    public TradingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public double getPriceThreshold() {
+        return priceThreshold;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Configuration)) return false;
+        Configuration other = (Configuration) o;
+        return moduleCount == other.moduleCount
+                && Double.compare(batteryKWh, other.batteryKWh) == 0
+                && Double.compare(cRate, other.cRate) == 0
+                && strategy == other.strategy
+                && Double.compare(priceThreshold, other.priceThreshold) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(moduleCount, batteryKWh, cRate, strategy, priceThreshold);
+    }
+
+    @Override
+    public String toString() {
+        return "Configuration{modules=" + moduleCount + ", battery=" + batteryKWh + " kWh, cRate=" + cRate
+                + ", strategy=" + strategy + (strategy == TradingStrategy.PRICE_THRESHOLD ? " @ " + priceThreshold : "") + "}";
+    }
+}
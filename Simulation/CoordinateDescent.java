@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cyclic coordinate descent: optimises one axis at a time with the others fixed and repeats
+ * until a full round brings no improvement. Ordered axes (module count, battery size, C-rate)
+ * are searched with a golden-section search, which assumes net savings to be unimodal along the
+ * axis; the strategy variants are categorical and are all evaluated.
+ */
+public class CoordinateDescent implements OptimizationStrategy {
+
+    private static final double PHI = (1 + Math.sqrt(5)) / 2;
+    private static final int STRATEGY_AXIS = 3;
+
+    @Override
+    public EvaluationResult optimize(MemoizedEvaluator evaluator, int maxSimulations) {
+        int[] shape = evaluator.getGrid().shape();
+        int limit = evaluator.getSimulationCount() + maxSimulations;
+
+        int[] current = new int[shape.length];
+        for (int axis = 0; axis < shape.length; axis++) {
+            current[axis] = shape[axis] / 2;
+        }
+        EvaluationResult best = evaluator.evaluate(current);
+
+        boolean improved = true;
+        while (improved && evaluator.getSimulationCount() < limit) {
+            improved = false;
+            for (int axis = 0; axis < shape.length && evaluator.getSimulationCount() < limit; axis++) {
+                if (shape[axis] <= 1) {
+                    continue;
+                }
+                int[] candidate = axis == STRATEGY_AXIS
+                        ? bestOf(evaluator, current, axis, 0, shape[axis] - 1)
+                        : goldenSection(evaluator, current, axis, shape[axis], limit);
+                EvaluationResult result = evaluator.evaluate(candidate);
+                if (result.getNetSavings() > best.getNetSavings()) {
+                    best = result;
+                    current = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Golden-section search on the integer values of one axis, the remaining bracket is evaluated completely
+    private static int[] goldenSection(MemoizedEvaluator evaluator, int[] current, int axis, int size, int limit) {
+        int lo = 0;
+        int hi = size - 1;
+        while (hi - lo > 3 && evaluator.getSimulationCount() < limit) {
+            int c = hi - (int) Math.round((hi - lo) / PHI);
+            int d = lo + (int) Math.round((hi - lo) / PHI);
+            if (c >= d) {
+                d = c + 1;
+            }
+            // Both inner points as one batch; the point kept from the last iteration is usually a cache hit
+            List<EvaluationResult> results = evaluator.evaluateAll(List.of(with(current, axis, c), with(current, axis, d)));
+            if (results.get(0).getNetSavings() >= results.get(1).getNetSavings()) {
+                hi = d - 1;
+            } else {
+                lo = c + 1;
+            }
+        }
+        return bestOf(evaluator, current, axis, lo, hi);
+    }
+
+    // Evaluates all values lo..hi of the axis in one batch
+    private static int[] bestOf(MemoizedEvaluator evaluator, int[] current, int axis, int lo, int hi) {
+        List<int[]> candidates = new ArrayList<>(hi - lo + 1);
+        for (int value = lo; value <= hi; value++) {
+            candidates.add(with(current, axis, value));
+        }
+        List<EvaluationResult> results = evaluator.evaluateAll(candidates);
+        int best = 0;
+        for (int i = 1; i < results.size(); i++) {
+            if (results.get(i).getNetSavings() > results.get(best).getNetSavings()) {
+                best = i;
+            }
+        }
+        return candidates.get(best);
+    }
+
+    private static int[] with(int[] coordinates, int axis, int value) {
+        int[] copy = coordinates.clone();
+        copy[axis] = value;
+        return copy;
+    }
+}
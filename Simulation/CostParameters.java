@@ -0,0 +1,55 @@
+/**
+ * Investment and operating cost assumptions used to turn energy flows into net savings.
+ */
+public final class CostParameters {
+
+    private final double pricePerModule;      // PV module incl. mounting [€/module]
+    private final double batteryPricePerKWh;  // Battery storage [€/kWh]
+    private final double fixedInstallation;   // Inverter, installation, paperwork [€], only if anything is built
+    private final double operatingCostShare;  // Yearly operating cost as share of the investment [1/year]
+    private final int lifetimeYears;          // Evaluation horizon [years]
+
+    public CostParameters(double pricePerModule, double batteryPricePerKWh, double fixedInstallation,
+                          double operatingCostShare, int lifetimeYears) {
+        this.pricePerModule = pricePerModule;
+        this.batteryPricePerKWh = batteryPricePerKWh;
+        this.fixedInstallation = fixedInstallation;
+        this.operatingCostShare = operatingCostShare;
+        this.lifetimeYears = lifetimeYears;
+    }
+
+    /**
+     * Investment of a configuration [€].
+     */
+    public double investment(Configuration config) {
+        double variable = config.getModuleCount() * pricePerModule + config.getBatteryKWh() * batteryPricePerKWh;
+        return variable > 0 ? variable + fixedInstallation : 0.0;
+    }
+
+    /**
+     * Net savings over the lifetime for a given yearly reduction of the energy bill [€].
+     */
+    public double netSavings(double annualBillReduction, double investment) {
+        return (annualBillReduction - investment * operatingCostShare) * lifetimeYears - investment;
+    }
+
+    public double getPricePerModule() {
+        return pricePerModule;
+    }
+
+    public double getBatteryPricePerKWh() {
+        return batteryPricePerKWh;
+    }
+
+    public double getFixedInstallation() {
+        return fixedInstallation;
+    }
+
+    public double getOperatingCostShare() {
+        return operatingCostShare;
+    }
+
+    public int getLifetimeYears() {
+        return lifetimeYears;
+    }
+}
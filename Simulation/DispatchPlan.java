@@ -0,0 +1,68 @@
+/**
+ * Battery dispatch of one year, either the perfect-foresight optimum of {@link OptimalDispatch}
+ * or the realised dispatch of {@link MpcController}.
+ * All energies are yearly totals [kWh].
+ */
+public final class DispatchPlan {
+
+    private final Configuration configuration;
+    private final double energyCost;     // Yearly bill with PV and battery [€]
+    private final double annualSavings;  // Reduction of the yearly bill compared to no PV and battery [€]
+    private final double gridImport;
+    private final double gridExport;
+    private final double batteryCycles;  // Throughput divided by capacity, as in EvaluationResult
+    private final double[] stateOfCharge; // SoC at the end of every step [kWh], null if not requested
+
+    DispatchPlan(Configuration configuration, double energyCost, double annualSavings,
+                 double gridImport, double gridExport, double batteryCycles, double[] stateOfCharge) {
+        this.configuration = configuration;
+        this.energyCost = energyCost;
+        this.annualSavings = annualSavings;
+        this.gridImport = gridImport;
+        this.gridExport = gridExport;
+        this.batteryCycles = batteryCycles;
+        this.stateOfCharge = stateOfCharge;
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public double getEnergyCost() {
+        return energyCost;
+    }
+
+    public double getAnnualSavings() {
+        return annualSavings;
+    }
+
+    public double getGridImport() {
+        return gridImport;
+    }
+
+    public double getGridExport() {
+        return gridExport;
+    }
+
+    public double getBatteryCycles() {
+        return batteryCycles;
+    }
+
+    public boolean hasTrajectory() {
+        return stateOfCharge != null;
+    }
+
+    public double getStateOfCharge(int step) {
+        return stateOfCharge[step];
+    }
+
+    public double[] getStateOfChargeTrajectory() {
+        return stateOfCharge == null ? null : stateOfCharge.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: dispatch annualSavings=%.2f €, energyCost=%.2f €, import=%.1f kWh, export=%.1f kWh, cycles=%.1f",
+                configuration, annualSavings, energyCost, gridImport, gridExport, batteryCycles);
+    }
+}
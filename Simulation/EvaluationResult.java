@@ -0,0 +1,86 @@
+/**
+ * KPIs of one simulated configuration. All energies are yearly totals [kWh].
+ */
+public final class EvaluationResult {
+
+    private final Configuration configuration;
+    private final double netSavings;       // Lifetime bill reduction minus investment and operating cost [€]
+    private final double annualSavings;    // Yearly reduction of the energy bill [€]
+    private final double investment;       // [€]
+    private final double pvProduction;
+    private final double load;
+    private final double gridImport;
+    private final double gridExport;
+    private final double batteryCycles;
+
+    public EvaluationResult(Configuration configuration, double netSavings, double annualSavings, double investment,
+                            double pvProduction, double load, double gridImport, double gridExport, double batteryCycles) {
+        this.configuration = configuration;
+        this.netSavings = netSavings;
+        this.annualSavings = annualSavings;
+        this.investment = investment;
+        this.pvProduction = pvProduction;
+        this.load = load;
+        this.gridImport = gridImport;
+        this.gridExport = gridExport;
+        this.batteryCycles = batteryCycles;
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public double getNetSavings() {
+        return netSavings;
+    }
+
+    public double getAnnualSavings() {
+        return annualSavings;
+    }
+
+    public double getInvestment() {
+        return investment;
+    }
+
+    public double getPvProduction() {
+        return pvProduction;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    public double getGridImport() {
+        return gridImport;
+    }
+
+    public double getGridExport() {
+        return gridExport;
+    }
+
+    public double getBatteryCycles() {
+        return batteryCycles;
+    }
+
+    /**
+     * Share of the PV production used on site (directly or via the battery).
+     */
+    public double getSelfConsumption() {
+        return pvProduction > 0 ? (pvProduction - gridExport) / pvProduction : 0.0;
+    }
+
+    /**
+     * Share of the demand not drawn from the grid.
+     */
+    public double getAutarky() {
+        return load > 0 ? (load - gridImport) / load : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: netSavings=%.2f €, annualSavings=%.2f €, investment=%.2f €, selfConsumption=%.1f %%, "
+                        + "autarky=%.1f %%, import=%.1f kWh, export=%.1f kWh, cycles=%.1f",
+                configuration, netSavings, annualSavings, investment, getSelfConsumption() * 100, getAutarky() * 100,
+                gridImport, gridExport, batteryCycles);
+    }
+}
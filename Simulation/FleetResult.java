@@ -0,0 +1,74 @@
+/**
+ * Yearly result of a community with a given shared storage. All energies are totals [kWh].
+ */
+public final class FleetResult {
+
+    private final double storageKWh;
+    private final double internalTrade;   // Surplus of one household used by another in the same step
+    private final double gridImport;
+    private final double gridExport;
+    private final double energyCost;      // Community bill with trading and shared storage [€]
+    private final double individualCost;  // Sum of the household bills without community [€]
+    private final double baselineCost;    // Bill without PV and batteries [€]
+    private final double storageCycles;
+    private final double load;
+
+    FleetResult(double storageKWh, double internalTrade, double gridImport, double gridExport, double energyCost,
+                double individualCost, double baselineCost, double storageCycles, double load) {
+        this.storageKWh = storageKWh;
+        this.internalTrade = internalTrade;
+        this.gridImport = gridImport;
+        this.gridExport = gridExport;
+        this.energyCost = energyCost;
+        this.individualCost = individualCost;
+        this.baselineCost = baselineCost;
+        this.storageCycles = storageCycles;
+        this.load = load;
+    }
+
+    public double getStorageKWh() {
+        return storageKWh;
+    }
+
+    public double getInternalTrade() {
+        return internalTrade;
+    }
+
+    public double getGridImport() {
+        return gridImport;
+    }
+
+    public double getGridExport() {
+        return gridExport;
+    }
+
+    public double getEnergyCost() {
+        return energyCost;
+    }
+
+    // Bill reduction of trading and shared storage compared to households acting alone [€]
+    public double getCommunityBenefit() {
+        return individualCost - energyCost;
+    }
+
+    public double getAnnualSavings() {
+        return baselineCost - energyCost;
+    }
+
+    public double getStorageCycles() {
+        return storageCycles;
+    }
+
+    // Share of the load not covered by the grid
+    public double getAutarky() {
+        return load > 0 ? 1 - gridImport / load : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("storage=%.1f kWh: energyCost=%.2f €, communityBenefit=%.2f €, internalTrade=%.1f kWh, "
+                        + "import=%.1f kWh, export=%.1f kWh, autarky=%.1f %%, cycles=%.1f",
+                storageKWh, energyCost, getCommunityBenefit(), internalTrade, gridImport, gridExport,
+                getAutarky() * 100, storageCycles);
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Community of many households, each with its own PV and battery, that trade surplus within the
+ * community and share one storage before touching the grid.
+ *
+ * Households only react to their own PV and load, so they do not need to wait for each other:
+ * the households are partitioned between the workers, every worker runs its partition over the
+ * year and adds the remaining surplus and deficit of each step into its own partial arrays.
+ * The partial sums are reduced once at the end (in worker order, so the result is deterministic),
+ * instead of synchronising the workers at every step. The community stage (internal trade, shared
+ * storage, grid) then runs over the reduced sums. PV per kWp and prices come from the shared,
+ * read-only {@link SimulationInput}; memory is one partial pair per worker plus the household loads.
+ */
+public class FleetSimulator {
+
+    private final SimulationInput input;
+    private final double roundTripEfficiency;
+    private final ForkJoinPool pool;
+
+    public FleetSimulator(SimulationInput input, double roundTripEfficiency) {
+        this(input, roundTripEfficiency, ForkJoinPool.commonPool());
+    }
+
+    public FleetSimulator(SimulationInput input, double roundTripEfficiency, ForkJoinPool pool) {
+        this.input = input;
+        this.roundTripEfficiency = roundTripEfficiency;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs all households over the year and returns the per-step community sums.
+     */
+    public CommunityFlows simulate(List<Household> households) throws InterruptedException, ExecutionException {
+        int steps = input.steps();
+        for (Household h : households) {
+            if (h.loadArray().length < steps) {
+                throw new IllegalArgumentException("Household load has " + h.loadArray().length + " steps, " + steps + " needed");
+            }
+        }
+        int workers = Math.max(1, Math.min(pool.getParallelism(), households.size()));
+        List<Future<Partial>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            // Contiguous partitions of nearly equal size
+            List<Household> partition = households.subList(w * households.size() / workers,
+                    (w + 1) * households.size() / workers);
+            futures.add(pool.submit(() -> runPartition(partition)));
+        }
+
+        double[] surplus = new double[steps];
+        double[] deficit = new double[steps];
+        double pvTotal = 0;
+        double loadTotal = 0;
+        double baseline = 0;
+        for (Future<Partial> future : futures) {
+            Partial p = future.get();
+            for (int t = 0; t < steps; t++) {
+                surplus[t] += p.surplus[t];
+                deficit[t] += p.deficit[t];
+            }
+            pvTotal += p.pvProduction;
+            loadTotal += p.load;
+            baseline += p.baselineCost;
+        }
+        return new CommunityFlows(surplus, deficit, households.size(), pvTotal, loadTotal, baseline);
+    }
+
+    // Own consumption and own battery of every household, same arithmetic as HeadlessEvaluator (self-consumption)
+    private Partial runPartition(List<Household> households) {
+        double[] pv = input.pvPerKWpArray();
+        double[] purchase = input.purchasePriceArray();
+        int steps = pv.length;
+        Partial p = new Partial(steps);
+        double efficiency = roundTripEfficiency;
+        double inverseEfficiency = 1.0 / roundTripEfficiency;
+
+        for (Household h : households) {
+            double kWp = h.getKWp();
+            double[] load = h.loadArray();
+            double scale = h.getLoadScale();
+            double capacity = Math.max(h.getBatteryKWh(), 0);
+            double maxPerStep = capacity * h.getCRate() * input.stepHours();
+            double soc = 0;
+
+            for (int t = 0; t < steps; t++) {
+                double production = pv[t] * kWp;
+                double demand = load[t] * scale;
+                double direct = production < demand ? production : demand;
+                double surplus = production - direct;
+                double deficit = demand - direct;
+
+                if (surplus > 0) {
+                    double charged = Battery.chargeStep(surplus, soc, capacity, maxPerStep, efficiency);
+                    soc += charged;
+                    surplus -= charged * inverseEfficiency;
+                }
+                if (deficit > 0) {
+                    double requested = deficit * inverseEfficiency;
+                    double discharged = Battery.dischargeStep(requested, soc, maxPerStep);
+                    soc -= discharged;
+                    deficit -= discharged == requested ? deficit : discharged * efficiency;
+                }
+
+                p.surplus[t] += surplus;
+                p.deficit[t] += deficit;
+                p.pvProduction += production;
+                p.load += demand;
+                p.baselineCost += demand * purchase[t];
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Community stage for a shared storage of the given size: surplus first covers the deficit of
+     * other households in the same step, the rest charges the shared storage (Battery semantics)
+     * and goes to the grid; remaining deficit is served by the storage, then by the grid.
+     */
+    public FleetResult community(CommunityFlows flows, double storageKWh, double storageCRate) {
+        double[] surplusSum = flows.surplusArray();
+        double[] deficitSum = flows.deficitArray();
+        double[] purchase = input.purchasePriceArray();
+        double[] feedIn = input.feedInPriceArray();
+        int steps = surplusSum.length;
+
+        double capacity = Math.max(storageKWh, 0);
+        double maxPerStep = capacity * storageCRate * input.stepHours();
+        double efficiency = roundTripEfficiency;
+        double inverseEfficiency = 1.0 / roundTripEfficiency;
+        double soc = 0;
+        double throughput = 0;
+
+        double internalTrade = 0;
+        double gridImport = 0;
+        double gridExport = 0;
+        double cost = 0;
+        double individualCost = 0;
+
+        for (int t = 0; t < steps; t++) {
+            double offered = surplusSum[t];
+            double requested = deficitSum[t];
+            individualCost += requested * purchase[t] - offered * feedIn[t];
+
+            double matched = offered < requested ? offered : requested;
+            internalTrade += matched;
+            double surplus = offered - matched;
+            double deficit = requested - matched;
+
+            if (surplus > 0) {
+                double charged = Battery.chargeStep(surplus, soc, capacity, maxPerStep, efficiency);
+                soc += charged;
+                throughput += charged;
+                surplus -= charged * inverseEfficiency;
+            }
+            if (deficit > 0) {
+                double needed = deficit * inverseEfficiency;
+                double discharged = Battery.dischargeStep(needed, soc, maxPerStep);
+                soc -= discharged;
+                throughput += discharged;
+                deficit -= discharged == needed ? deficit : discharged * efficiency;
+            }
+
+            gridImport += deficit;
+            gridExport += surplus;
+            cost += deficit * purchase[t] - surplus * feedIn[t];
+        }
+        return new FleetResult(capacity, internalTrade, gridImport, gridExport, cost, individualCost,
+                flows.getBaselineCost(), capacity > 0 ? throughput / capacity : 0.0, flows.getLoad());
+    }
+
+    // Partial sums of one worker
+    private static final class Partial {
+        final double[] surplus;
+        final double[] deficit;
+        double pvProduction;
+        double load;
+        double baselineCost;
+
+        Partial(int steps) {
+            surplus = new double[steps];
+            deficit = new double[steps];
+        }
+    }
+}
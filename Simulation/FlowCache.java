@@ -0,0 +1,115 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-pricing cache: simulates the physical energy flows of a configuration once and evaluates
+ * any number of tariff and cost scenarios on them without simulating again. Each scenario is a
+ * dot product of the cached import/export vectors with the price vectors, so tariff sensitivity
+ * studies run at memory bandwidth.
+ *
+ * The flows of a battery depend on its lifetime fade, so with battery degradation they are cached
+ * per configuration and lifetime of the cost parameters.
+ *
+ * Only configurations whose dispatch does not depend on prices (self-consumption) can be cached;
+ * other strategies are simulated with the scenario prices every time. The cache is thread-safe
+ * and holds at most maxEntries configurations (about 280 kB each for a year of 15-minute steps);
+ * once it is full, further configurations are simulated but not kept.
+ */
+public class FlowCache {
+
+    private final HeadlessEvaluator evaluator;
+    private final int maxEntries;
+    private final ConcurrentHashMap<Key, GridFlows> flows = new ConcurrentHashMap<>();
+
+    public FlowCache(HeadlessEvaluator evaluator, int maxEntries) {
+        this.evaluator = evaluator;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Price vectors of one tariff scenario, aligned with the simulation input.
+     * The bill without PV and battery is precomputed once per scenario.
+     */
+    public PriceScenario scenario(double[] purchasePrice, double[] feedInPrice) {
+        return new PriceScenario(evaluator.getInput(), purchasePrice, feedInPrice);
+    }
+
+    /**
+     * Grid flows of the configuration with the lifetime of the evaluator's cost parameters, simulated on first use.
+     */
+    public GridFlows flows(Configuration config) {
+        return flows(config, evaluator.getCosts().getLifetimeYears());
+    }
+
+    /**
+     * Grid flows of the configuration with the battery fade over the given lifetime, simulated on first use.
+     */
+    public GridFlows flows(Configuration config, int lifetimeYears) {
+        // Without fade the lifetime does not change the flows, so all lifetimes share one entry
+        boolean fades = evaluator.getDegradationPerCycle() > 0 && config.getBatteryKWh() > 0;
+        Key key = new Key(config, fades ? lifetimeYears : 0);
+        GridFlows cached = flows.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (flows.size() >= maxEntries) {
+            return evaluator.simulateFlows(config, lifetimeYears);
+        }
+        return flows.computeIfAbsent(key, k -> evaluator.simulateFlows(config, lifetimeYears));
+    }
+
+    /**
+     * KPIs of the configuration under the given prices and cost assumptions.
+     */
+    public EvaluationResult evaluate(Configuration config, PriceScenario prices, CostParameters costs) {
+        if (config.getStrategy() != TradingStrategy.SELF_CONSUMPTION) {
+            return repriceBySimulation(config, prices, costs);
+        }
+        GridFlows f = flows(config, costs.getLifetimeYears());
+        double energyCost = f.energyCost(prices.purchasePriceArray(), prices.feedInPriceArray());
+        double annualSavings = prices.getBaselineCost() - energyCost;
+        double investment = costs.investment(config);
+        return new EvaluationResult(config, costs.netSavings(annualSavings, investment), annualSavings, investment,
+                f.getPvProduction(), f.getLoad(), f.getGridImport(), f.getGridExport(), f.getBatteryCycles());
+    }
+
+    // Price-dependent dispatch: full simulation with the scenario prices
+    private EvaluationResult repriceBySimulation(Configuration config, PriceScenario prices, CostParameters costs) {
+        SimulationInput input = evaluator.getInput();
+        SimulationInput priced = new SimulationInput(input.getPv(), input.loadArray(),
+                prices.purchasePriceArray(), prices.feedInPriceArray());
+        return new HeadlessEvaluator(priced, costs, evaluator.getModuleKWp(), evaluator.getRoundTripEfficiency(),
+                evaluator.getDegradationPerCycle()).evaluate(config);
+    }
+
+    public int size() {
+        return flows.size();
+    }
+
+    public void clear() {
+        flows.clear();
+    }
+
+    private static final class Key {
+        private final Configuration configuration;
+        private final int lifetimeYears;
+
+        Key(Configuration configuration, int lifetimeYears) {
+            this.configuration = configuration;
+            this.lifetimeYears = lifetimeYears;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return lifetimeYears == other.lifetimeYears && configuration.equals(other.configuration);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * configuration.hashCode() + lifetimeYears;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Random;
+
+/**
+ * Regression check for {@link FlowCache}: re-priced results must match a full simulation, also for
+ * cost parameters with another lifetime than the evaluator's, which changes the battery fade.
+ * Run with {@code java FlowCacheCheck}; exits with status 1 on failure.
+ */
+public final class FlowCacheCheck {
+
+    private static final int STEPS = 35040; // One year of 15-minute steps
+
+    private FlowCacheCheck() {
+    }
+
+    public static void main(String[] args) {
+        SimulationInput input = syntheticYear(new Random(1));
+        CostParameters costs20 = new CostParameters(150, 500, 1500, 0.01, 20);
+        CostParameters costs10 = new CostParameters(150, 500, 1500, 0.01, 10);
+        HeadlessEvaluator evaluator = new HeadlessEvaluator(input, costs20, 0.44, 0.95, 5e-4);
+        FlowCache cache = new FlowCache(evaluator, 16);
+        PriceScenario prices = cache.scenario(input.purchasePriceArray(), input.feedInPriceArray());
+
+        Configuration config = new Configuration(20, 10, 0.5, TradingStrategy.SELF_CONSUMPTION);
+        boolean ok = check("lifetime 20", cache.evaluate(config, prices, costs20), evaluator.evaluate(config))
+                & check("lifetime 10", cache.evaluate(config, prices, costs10),
+                        new HeadlessEvaluator(input, costs10, 0.44, 0.95, 5e-4).evaluate(config))
+                & check("lifetime 20 again", cache.evaluate(config, prices, costs20), evaluator.evaluate(config));
+        System.out.println(ok ? "FlowCache re-pricing OK" : "FlowCache re-pricing FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // Cached flows are single precision, so allow a cent of rounding
+    private static boolean check(String name, EvaluationResult cached, EvaluationResult simulated) {
+        boolean ok = Math.abs(cached.getNetSavings() - simulated.getNetSavings()) < 0.01;
+        if (!ok) {
+            System.out.println(name + ": cached " + cached.getNetSavings() + ", simulated " + simulated.getNetSavings());
+        }
+        return ok;
+    }
+
+    private static SimulationInput syntheticYear(Random random) {
+        double[] pv = new double[STEPS];
+        double[] load = new double[STEPS];
+        double[] purchase = new double[STEPS];
+        double[] feedIn = new double[STEPS];
+        for (int t = 0; t < STEPS; t++) {
+            double hour = (t % 96) / 4.0;
+            double season = 0.6 + 0.4 * Math.sin(2 * Math.PI * (t / 96 - 80) / 365.0);
+            pv[t] = Math.max(0, Math.sin((hour - 6) / 12 * Math.PI)) * season * (0.5 + 0.5 * random.nextDouble()) * 0.25;
+            load[t] = 0.08 + 0.1 * Math.exp(-Math.pow(hour - 19, 2) / 4) + 0.02 * random.nextDouble();
+            purchase[t] = 0.30;
+            feedIn[t] = 0.08;
+        }
+        return new SimulationInput(new ProductionProfile(pv, 15), load, purchase, feedIn);
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Gaussian process regression with a squared exponential kernel and one length scale per input
+ * dimension, used as cheap surrogate of the simulation. Targets are standardised internally; signal
+ * and noise variance are relative to the unit target variance. The noise (nugget) absorbs what the
+ * smooth kernel cannot explain, e.g. jumps between strategies, and widens the predictive intervals
+ * accordingly. Fitting is a Cholesky decomposition of the kernel matrix, O(n^3), prediction O(n^2) per point.
+ */
+final class GaussianProcess {
+
+    private static final double JITTER = 1e-9; // Keeps K positive definite for near-duplicate points
+
+    private final double[][] x;
+    private final double[] lengthScales;
+    private final double signalVariance;
+    private final double noiseVariance;
+    private final double yMean;
+    private final double yScale;
+    private final double[][] chol;  // Lower triangular L with K = L L^T
+    private final double[] alpha;   // K^-1 (y - mean) / scale
+    private final double logLikelihood;
+
+    GaussianProcess(double[][] x, double[] y, double[] lengthScales, double signalVariance, double noiseVariance) {
+        int n = x.length;
+        this.x = x;
+        this.lengthScales = lengthScales.clone();
+        this.signalVariance = signalVariance;
+        this.noiseVariance = noiseVariance;
+
+        double mean = 0;
+        for (double v : y) {
+            mean += v / n;
+        }
+        double variance = 0;
+        for (double v : y) {
+            variance += (v - mean) * (v - mean) / n;
+        }
+        this.yMean = mean;
+        this.yScale = variance > 0 ? Math.sqrt(variance) : 1;
+
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            z[i] = (y[i] - yMean) / yScale;
+        }
+        double[][] k = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                k[i][j] = signalVariance * kernel(x[i], x[j]);
+            }
+            k[i][i] = signalVariance + noiseVariance + JITTER;
+        }
+        this.chol = cholesky(k);
+        this.alpha = solveTransposed(chol, solve(chol, z));
+
+        double fit = 0;
+        double logDet = 0;
+        for (int i = 0; i < n; i++) {
+            fit += z[i] * alpha[i];
+            logDet += 2 * Math.log(chol[i][i]);
+        }
+        this.logLikelihood = -0.5 * fit - 0.5 * logDet - 0.5 * n * Math.log(2 * Math.PI);
+    }
+
+    // Correlation of two points [0..1], the covariance is signalVariance times this
+    double kernel(double[] a, double[] b) {
+        double d = 0;
+        for (int i = 0; i < a.length; i++) {
+            double t = (a[i] - b[i]) / lengthScales[i];
+            d += t * t;
+        }
+        return Math.exp(-0.5 * d);
+    }
+
+    /**
+     * Predictive mean and standard deviation of a new simulation at the point (noise included),
+     * written to out[0] and out[1].
+     */
+    void predict(double[] point, double[] out) {
+        int n = x.length;
+        double[] k = new double[n];
+        double mean = 0;
+        for (int i = 0; i < n; i++) {
+            k[i] = signalVariance * kernel(point, x[i]);
+            mean += k[i] * alpha[i];
+        }
+        double[] v = solve(chol, k);
+        double variance = signalVariance + noiseVariance;
+        for (int i = 0; i < n; i++) {
+            variance -= v[i] * v[i];
+        }
+        out[0] = yMean + yScale * mean;
+        out[1] = yScale * Math.sqrt(Math.max(variance, 0));
+    }
+
+    // Log marginal likelihood of the standardised targets, used to choose the hyperparameters
+    double getLogLikelihood() {
+        return logLikelihood;
+    }
+
+    double getScale() {
+        return yScale;
+    }
+
+    private static double[][] cholesky(double[][] a) {
+        int n = a.length;
+        double[][] l = new double[n][];
+        for (int i = 0; i < n; i++) {
+            l[i] = new double[i + 1];
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    // Near-duplicate points can make K numerically semi-definite
+                    l[i][i] = Math.sqrt(Math.max(sum, JITTER));
+                } else {
+                    l[i][j] = sum / l[j][j];
+                }
+            }
+        }
+        return l;
+    }
+
+    // Solves L v = b
+    private static double[] solve(double[][] l, double[] b) {
+        int n = b.length;
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = b[i];
+            double[] row = l[i];
+            for (int k = 0; k < i; k++) {
+                sum -= row[k] * v[k];
+            }
+            v[i] = sum / row[i];
+        }
+        return v;
+    }
+
+    // Solves L^T v = b
+    private static double[] solveTransposed(double[][] l, double[] b) {
+        int n = b.length;
+        double[] v = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = b[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k][i] * v[k];
+            }
+            v[i] = sum / l[i][i];
+        }
+        return v;
+    }
+}
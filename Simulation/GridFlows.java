@@ -0,0 +1,76 @@
+/**
+ * Price-independent physical result of one configuration: grid import and export of every step
+ * [kWh] in single precision, plus the yearly totals of the simulation. Tariffs are applied later
+ * by {@link FlowCache} as dot products with the price vectors.
+ */
+public final class GridFlows {
+
+    private final Configuration configuration;
+    private final float[] gridImport;
+    private final float[] gridExport;
+    private final double pvProduction;
+    private final double load;
+    private final double importTotal;
+    private final double exportTotal;
+    private final double batteryCycles;
+
+    GridFlows(Configuration configuration, float[] gridImport, float[] gridExport, EvaluationResult result) {
+        this.configuration = configuration;
+        this.gridImport = gridImport;
+        this.gridExport = gridExport;
+        this.pvProduction = result.getPvProduction();
+        this.load = result.getLoad();
+        this.importTotal = result.getGridImport();
+        this.exportTotal = result.getGridExport();
+        this.batteryCycles = result.getBatteryCycles();
+    }
+
+    /**
+     * Yearly energy cost under the given prices [€]: import · purchase − export · feed-in.
+     */
+    public double energyCost(double[] purchasePrice, double[] feedInPrice) {
+        float[] in = gridImport;
+        float[] out = gridExport;
+        if (purchasePrice.length < in.length || feedInPrice.length < in.length) {
+            throw new IllegalArgumentException("Price vectors are shorter than the flows: " + in.length + " steps");
+        }
+        double cost = 0;
+        for (int t = 0; t < in.length; t++) {
+            cost += in[t] * purchasePrice[t] - out[t] * feedInPrice[t];
+        }
+        return cost;
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public int steps() {
+        return gridImport.length;
+    }
+
+    public double getPvProduction() {
+        return pvProduction;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    public double getGridImport() {
+        return importTotal;
+    }
+
+    public double getGridExport() {
+        return exportTotal;
+    }
+
+    public double getBatteryCycles() {
+        return batteryCycles;
+    }
+
+    // Memory held by the flow vectors [bytes]
+    public long sizeInBytes() {
+        return 4L * (gridImport.length + gridExport.length);
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * Pure-Java evaluation kernel for bulk evaluation of configurations.
+ * Combines the PV profile, the battery model of {@link Battery}, the load profile and the tariff series of one year
+ * in a single loop over primitive arrays. AnyLogic stays the visual front end; sweeps and
+ * optimizers call this kernel directly.
+ *
+ * The battery fades over the lifetime with the degradation per cycle (capacity 1 - d * cycles / 2 of the
+ * nominal, as in {@link BatteryBank}): the first year at nominal capacity gives the cycles per year, the
+ * reported year is then simulated with the average capacity of the lifetime, so net savings account for the fade.
+ *
+ * Instances only hold read-only data and can be shared between threads.
+ */
+public class HeadlessEvaluator {
+
+    private final SimulationInput input;
+    private final CostParameters costs;
+    private final double moduleKWp;            // Peak power of one module [kWp]
+    private final double roundTripEfficiency;
+    private final double degradationPerCycle;
+
+    private final double baselineCost;         // Yearly bill without PV and battery [€]
+
+    // Bounds for pruning, computed on first use: Monte Carlo builds an evaluator per scenario and never prunes
+    private volatile PruningBounds bounds;
+
+    // Steps between two bound checks when pruning (one day at 15 minutes)
+    private static final int CHECK_INTERVAL = 96;
+
+    public HeadlessEvaluator(SimulationInput input, CostParameters costs, double moduleKWp,
+                             double roundTripEfficiency, double degradationPerCycle) {
+        this.input = input;
+        this.costs = costs;
+        this.moduleKWp = moduleKWp;
+        this.roundTripEfficiency = roundTripEfficiency;
+        this.degradationPerCycle = degradationPerCycle;
+
+        double[] load = input.loadArray();
+        double[] purchase = input.purchasePriceArray();
+        double baseline = 0;
+        // Summed backwards like the suffix sums, so both agree exactly
+        for (int t = load.length - 1; t >= 0; t--) {
+            baseline += load[t] * purchase[t];
+        }
+        this.baselineCost = baseline;
+    }
+
+    // Racing threads may both compute the bounds; they are immutable and identical, so either one wins
+    private PruningBounds bounds() {
+        PruningBounds b = bounds;
+        if (b == null) {
+            b = new PruningBounds(input);
+            bounds = b;
+        }
+        return b;
+    }
+
+    // Suffix sums/maxima over steps t..end, used for cheap upper bounds on the savings (index steps = empty)
+    private static final class PruningBounds {
+        final double[] remainingPv;        // Σ PV per kWp [kWh/kWp]
+        final double[] remainingPvFeedIn;  // Σ PV per kWp * positive feed-in price [€/kWp]
+        final double[] remainingBill;      // Σ load * purchase price [€]
+        final double[] remainingBillBound; // Σ load * positive purchase price [€]
+        final double[] remainingMaxPrice;  // max of purchase and feed-in price, at least 0 [€/kWh]
+
+        PruningBounds(SimulationInput input) {
+            double[] load = input.loadArray();
+            double[] purchase = input.purchasePriceArray();
+            double[] feedIn = input.feedInPriceArray();
+            double[] pv = input.pvPerKWpArray();
+            int steps = load.length;
+
+            remainingPv = new double[steps + 1];
+            remainingPvFeedIn = new double[steps + 1];
+            remainingBill = new double[steps + 1];
+            remainingBillBound = new double[steps + 1];
+            remainingMaxPrice = new double[steps + 1];
+            for (int t = steps - 1; t >= 0; t--) {
+                // Negative prices can only reduce savings, so they are clamped to 0 in the bounds
+                remainingPv[t] = remainingPv[t + 1] + pv[t];
+                remainingPvFeedIn[t] = remainingPvFeedIn[t + 1] + pv[t] * Math.max(feedIn[t], 0);
+                remainingBill[t] = remainingBill[t + 1] + load[t] * purchase[t];
+                remainingBillBound[t] = remainingBillBound[t + 1] + load[t] * Math.max(purchase[t], 0);
+                remainingMaxPrice[t] = Math.max(remainingMaxPrice[t + 1], Math.max(purchase[t], feedIn[t]));
+            }
+        }
+    }
+
+    /**
+     * Simulates one year of the configuration and returns its KPIs.
+     */
+    public EvaluationResult evaluate(Configuration config) {
+        return evaluate(config, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Simulates the configuration unless it provably cannot reach more net savings than
+     * the incumbent. The bound is checked before the simulation and once per day of
+     * simulated time; the simulation is aborted as soon as it fails.
+     *
+     * @return the result, or null if the candidate was pruned
+     */
+    public EvaluationResult evaluate(Configuration config, double incumbentNetSavings) {
+        return simulate(config, incumbentNetSavings, costs.getLifetimeYears(), null, null, null);
+    }
+
+    /**
+     * Simulates the configuration and books every step on the accumulator (reset first), so feed-in
+     * caps apply; the savings are taken from the accumulator, the grid export in the result still
+     * includes curtailed energy (see {@link TariffAccumulator#getCurtailed}). The input prices still
+     * drive the dispatch of the threshold strategy, so the tariff is normally compiled into the input
+     * (see {@link CompiledTariff#toInput}).
+     */
+    public EvaluationResult evaluate(Configuration config, TariffAccumulator tariff) {
+        if (tariff.steps() < input.steps()) {
+            throw new IllegalArgumentException("Tariff covers " + tariff.steps() + " steps, input " + input.steps());
+        }
+        tariff.reset();
+        return simulate(config, Double.NEGATIVE_INFINITY, costs.getLifetimeYears(), null, null, tariff);
+    }
+
+    /**
+     * Simulates the configuration and keeps its per-step grid import and export for re-pricing.
+     * Only the self-consumption strategy dispatches independently of prices.
+     */
+    GridFlows simulateFlows(Configuration config) {
+        return simulateFlows(config, costs.getLifetimeYears());
+    }
+
+    /**
+     * As {@link #simulateFlows(Configuration)}, with the battery fade averaged over the given lifetime
+     * instead of that of the cost parameters.
+     */
+    GridFlows simulateFlows(Configuration config, int lifetimeYears) {
+        if (config.getStrategy() != TradingStrategy.SELF_CONSUMPTION) {
+            throw new IllegalArgumentException("Grid flows depend on the prices for strategy " + config.getStrategy());
+        }
+        int steps = input.steps();
+        float[] gridImport = new float[steps];
+        float[] gridExport = new float[steps];
+        EvaluationResult result = simulate(config, Double.NEGATIVE_INFINITY, lifetimeYears, gridImport, gridExport, null);
+        return new GridFlows(config, gridImport, gridExport, result);
+    }
+
+    // lifetimeYears sets the battery fade, importTrace/exportTrace receive the grid flows of every step if not null,
+    // tariff books every step if not null
+    private EvaluationResult simulate(Configuration config, double incumbentNetSavings, int lifetimeYears,
+                                      float[] importTrace, float[] exportTrace, TariffAccumulator tariff) {
+        double capacity = Math.max(config.getBatteryKWh(), 0);
+        if (degradationPerCycle > 0 && capacity > 0) {
+            // Same check as at the start of the year, saves the first-year run of hopeless candidates
+            if (incumbentNetSavings > Double.NEGATIVE_INFINITY
+                    && costs.netSavings(annualSavingsBound(config), costs.investment(config)) <= incumbentNetSavings) {
+                return null;
+            }
+            double cycles = simulateYear(config, capacity, Double.NEGATIVE_INFINITY, null, null, null).getBatteryCycles();
+            capacity *= averageCapacityShare(degradationPerCycle, cycles, lifetimeYears);
+        }
+        return simulateYear(config, capacity, incumbentNetSavings, importTrace, exportTrace, tariff);
+    }
+
+    /**
+     * Average battery capacity over the lifetime as share of the nominal capacity, for a constant number of
+     * throughput cycles per year (charge and discharge each count, so a full cycle adds 2) and a capacity
+     * of 1 - degradationPerCycle * cycles / 2, averaged over each year.
+     */
+    static double averageCapacityShare(double degradationPerCycle, double cyclesPerYear, int years) {
+        if (years <= 0) {
+            return 1.0;
+        }
+        double sum = 0;
+        for (int year = 0; year < years; year++) {
+            sum += Math.max(0, 1 - degradationPerCycle * cyclesPerYear * (year + 0.5) * 0.5);
+        }
+        return sum / years;
+    }
+
+    // One year with the given (faded) capacity; the charge power stays that of the nominal battery
+    private EvaluationResult simulateYear(Configuration config, double capacity, double incumbentNetSavings,
+                                          float[] importTrace, float[] exportTrace, TariffAccumulator tariff) {
+        boolean tracing = importTrace != null;
+        boolean pruning = incumbentNetSavings > Double.NEGATIVE_INFINITY;
+        double investment = costs.investment(config);
+        double kWp = config.getModuleCount() * moduleKWp;
+        boolean selfConsumption = config.getStrategy() == TradingStrategy.SELF_CONSUMPTION;
+        double threshold = config.getPriceThreshold();
+
+        // Battery state kept in locals, steps by Battery.chargeStep and Battery.dischargeStep.
+        // The capacity is constant within the simulated year, the lifetime fade is applied by the caller
+        double maxPerStep = Math.max(config.getBatteryKWh(), 0) * config.getCRate() * input.stepHours();
+        double efficiency = roundTripEfficiency;
+        double inverseEfficiency = 1.0 / roundTripEfficiency;
+        double soc = 0;
+        double throughput = 0;
+
+        double[] load = input.loadArray();
+        double[] purchase = input.purchasePriceArray();
+        double[] feedIn = input.feedInPriceArray();
+        double[] pv = input.pvPerKWpArray();
+        int steps = load.length;
+
+        double pvTotal = 0;
+        double loadTotal = 0;
+        double gridImport = 0;
+        double gridExport = 0;
+        double cost = 0;
+
+        double[] remainingBill = pruning ? bounds().remainingBill : null;
+        for (int blockStart = 0; blockStart < steps; blockStart += CHECK_INTERVAL) {
+            if (pruning) {
+                double savingsSoFar = (baselineCost - remainingBill[blockStart]) - cost;
+                double bound = savingsSoFar + remainingSavingsBound(blockStart, kWp, soc);
+                if (costs.netSavings(bound, investment) <= incumbentNetSavings) {
+                    return null;
+                }
+            }
+            int blockEnd = Math.min(blockStart + CHECK_INTERVAL, steps);
+            // Ternaries instead of Math.min: no NaN/-0.0 handling needed and noticeably faster in this loop
+            for (int t = blockStart; t < blockEnd; t++) {
+                double production = pv[t] * kWp;
+                double demand = load[t];
+                double direct = production < demand ? production : demand;
+                double surplus = production - direct;
+                double deficit = demand - direct;
+
+                if (surplus > 0 && (selfConsumption || feedIn[t] < threshold)) {
+                    double charged = Battery.chargeStep(surplus, soc, capacity, maxPerStep, efficiency);
+                    soc += charged;
+                    throughput += charged;
+                    surplus -= charged * inverseEfficiency;
+                }
+                if (deficit > 0 && (selfConsumption || purchase[t] >= threshold)) {
+                    double requested = deficit * inverseEfficiency;
+                    double discharged = Battery.dischargeStep(requested, soc, maxPerStep);
+                    soc -= discharged;
+                    throughput += discharged;
+                    deficit -= discharged == requested ? deficit : discharged * efficiency;
+                }
+
+                pvTotal += production;
+                loadTotal += demand;
+                gridImport += deficit;
+                gridExport += surplus;
+                if (tracing) {
+                    importTrace[t] = (float) deficit;
+                    exportTrace[t] = (float) surplus;
+                }
+                if (tariff != null) {
+                    tariff.step(t, demand, deficit, surplus);
+                }
+                cost += deficit * purchase[t] - surplus * feedIn[t];
+            }
+        }
+
+        double annualSavings = baselineCost - cost;
+        if (tariff != null) {
+            annualSavings = tariff.getSavings();
+        }
+        return new EvaluationResult(config, costs.netSavings(annualSavings, investment), annualSavings, investment,
+                pvTotal, loadTotal, gridImport, gridExport, capacity > 0 ? throughput / capacity : 0.0);
+    }
+
+    /**
+     * Upper bound on the savings of steps t..end, given the PV size and the energy stored at step t.
+     * Every PV kWh (and every stored kWh) is worth at most the highest remaining price, and the
+     * savings can never exceed the remaining bill plus selling all PV energy.
+     */
+    double remainingSavingsBound(int t, double kWp, double storedEnergy) {
+        PruningBounds b = bounds();
+        double byPrice = (kWp * b.remainingPv[t] + storedEnergy) * b.remainingMaxPrice[t];
+        double byBill = b.remainingBillBound[t] + kWp * b.remainingPvFeedIn[t];
+        return Math.min(byPrice, byBill);
+    }
+
+    /**
+     * Upper bound on the yearly savings of a configuration, O(1).
+     */
+    public double annualSavingsBound(Configuration config) {
+        return remainingSavingsBound(0, config.getModuleCount() * moduleKWp, 0.0);
+    }
+
+    public SimulationInput getInput() {
+        return input;
+    }
+
+    public CostParameters getCosts() {
+        return costs;
+    }
+
+    public double getModuleKWp() {
+        return moduleKWp;
+    }
+
+    public double getRoundTripEfficiency() {
+        return roundTripEfficiency;
+    }
+
+    public double getDegradationPerCycle() {
+        return degradationPerCycle;
+    }
+
+    public double getBaselineCost() {
+        return baselineCost;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * One member of a community: own PV size, own battery and own load.
+ * The load array is shared (e.g. a {@link LoadProfileGenerator#shared} profile) and scaled by
+ * loadScale, so many households can reuse a few profiles without copying them.
+ */
+public final class Household {
+
+    private final double kWp;
+    private final double batteryKWh;
+    private final double cRate;
+    private final double[] load;      // Load per step [kWh], shared and read-only
+    private final double loadScale;
+
+    public Household(double kWp, double batteryKWh, double cRate, double[] load, double loadScale) {
+        this.kWp = kWp;
+        this.batteryKWh = batteryKWh;
+        this.cRate = cRate;
+        this.load = load;
+        this.loadScale = loadScale;
+    }
+
+    public Household(double kWp, double batteryKWh, double cRate, double[] load) {
+        this(kWp, batteryKWh, cRate, load, 1.0);
+    }
+
+    public double getKWp() {
+        return kWp;
+    }
+
+    public double getBatteryKWh() {
+        return batteryKWh;
+    }
+
+    public double getCRate() {
+        return cRate;
+    }
+
+    public double getLoadScale() {
+        return loadScale;
+    }
+
+    double[] loadArray() {
+        return load;
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caching front end of {@link HeadlessEvaluator} for the optimizers.
+ * Results are memoized per discretised {@link Configuration}, so no configuration is simulated
+ * twice, even if several threads request it at the same time (they share one pending future).
+ * Batches of candidates are simulated in parallel on the pool.
+ */
+public class MemoizedEvaluator {
+
+    private final HeadlessEvaluator evaluator;
+    private final SweepGrid grid;
+    private final ForkJoinPool pool;
+    private final ConcurrentHashMap<Configuration, CompletableFuture<EvaluationResult>> cache = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+
+    public MemoizedEvaluator(HeadlessEvaluator evaluator, SweepGrid grid) {
+        this(evaluator, grid, ForkJoinPool.commonPool());
+    }
+
+    public MemoizedEvaluator(HeadlessEvaluator evaluator, SweepGrid grid, ForkJoinPool pool) {
+        this.evaluator = evaluator;
+        this.grid = grid;
+        this.pool = pool;
+    }
+
+    public EvaluationResult evaluate(Configuration config) {
+        return submit(config).join();
+    }
+
+    /**
+     * Evaluates the configuration at the given grid coordinates.
+     */
+    public EvaluationResult evaluate(int[] coordinates) {
+        return evaluate(grid.get(coordinates));
+    }
+
+    /**
+     * Evaluates all candidates in parallel, results are returned in the order of the candidates.
+     */
+    public List<EvaluationResult> evaluateAll(List<int[]> coordinates) {
+        List<CompletableFuture<EvaluationResult>> futures = new ArrayList<>(coordinates.size());
+        for (int[] c : coordinates) {
+            futures.add(submit(grid.get(c)));
+        }
+        List<EvaluationResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<EvaluationResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private CompletableFuture<EvaluationResult> submit(Configuration config) {
+        requests.increment();
+        return cache.computeIfAbsent(config, c -> CompletableFuture.supplyAsync(() -> evaluator.evaluate(c), pool));
+    }
+
+    /**
+     * Best result simulated so far (highest net savings), null if nothing was simulated yet.
+     */
+    public EvaluationResult best() {
+        EvaluationResult best = null;
+        for (CompletableFuture<EvaluationResult> future : cache.values()) {
+            EvaluationResult result = future.join();
+            if (best == null || result.getNetSavings() > best.getNetSavings()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    public SweepGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Number of distinct configurations that were simulated.
+     */
+    public int getSimulationCount() {
+        return cache.size();
+    }
+
+    /**
+     * Number of evaluation requests including cache hits.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public void clear() {
+        cache.clear();
+        requests.reset();
+    }
+}
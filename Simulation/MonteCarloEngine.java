@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Evaluates candidate configurations against many synthetic years of a {@link ScenarioGenerator}.
+ * Every worker owns a SplittableRandom stream split from the seed in worker order and handles the
+ * scenarios w, w + workers, w + 2 * workers, ...; each scenario is generated once and evaluated for
+ * all candidates. Only streaming statistics are kept, one per candidate and worker, merged at the
+ * end, so memory does not grow with the number of scenarios and results are reproducible for a
+ * given seed and worker count.
+ */
+public class MonteCarloEngine {
+
+    private static final double[] DEFAULT_QUANTILES = {0.05, 0.5, 0.95};
+
+    private final HeadlessEvaluator evaluator; // Supplies cost parameters, module size and battery model
+    private final ScenarioGenerator generator;
+    private final ForkJoinPool pool;
+    private final int workers;
+    private ToDoubleFunction<EvaluationResult> metric = EvaluationResult::getNetSavings;
+    private double[] quantiles = DEFAULT_QUANTILES;
+
+    public MonteCarloEngine(HeadlessEvaluator evaluator, ScenarioGenerator generator) {
+        this(evaluator, generator, ForkJoinPool.commonPool());
+    }
+
+    public MonteCarloEngine(HeadlessEvaluator evaluator, ScenarioGenerator generator, ForkJoinPool pool) {
+        this.evaluator = evaluator;
+        this.generator = generator;
+        this.pool = pool;
+        this.workers = pool.getParallelism();
+    }
+
+    /**
+     * Value collected per scenario, net savings by default.
+     */
+    public MonteCarloEngine setMetric(ToDoubleFunction<EvaluationResult> metric) {
+        this.metric = metric;
+        return this;
+    }
+
+    /**
+     * Quantile probabilities to estimate, 5 %, 50 % and 95 % by default.
+     */
+    public MonteCarloEngine setQuantiles(double... quantiles) {
+        this.quantiles = quantiles.clone();
+        return this;
+    }
+
+    /**
+     * Runs the given number of scenarios and blocks until all are evaluated.
+     *
+     * @return statistics of the metric, in the order of the candidates
+     */
+    public List<StreamingStatistics> run(List<Configuration> candidates, int scenarios, long seed)
+            throws InterruptedException, ExecutionException {
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Future<StreamingStatistics[]>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            SplittableRandom random = root.split();
+            int first = w;
+            futures.add(pool.submit(() -> runWorker(candidates, first, scenarios, random)));
+        }
+
+        List<StreamingStatistics> merged = new ArrayList<>(candidates.size());
+        for (int c = 0; c < candidates.size(); c++) {
+            merged.add(new StreamingStatistics(quantiles));
+        }
+        for (Future<StreamingStatistics[]> future : futures) {
+            StreamingStatistics[] partial = future.get();
+            for (int c = 0; c < partial.length; c++) {
+                merged.get(c).merge(partial[c]);
+            }
+        }
+        return merged;
+    }
+
+    private StreamingStatistics[] runWorker(List<Configuration> candidates, int first, int scenarios,
+                                            SplittableRandom random) {
+        StreamingStatistics[] statistics = new StreamingStatistics[candidates.size()];
+        for (int c = 0; c < statistics.length; c++) {
+            statistics[c] = new StreamingStatistics(quantiles);
+        }
+        for (int scenario = first; scenario < scenarios; scenario += workers) {
+            HeadlessEvaluator year = new HeadlessEvaluator(generator.generate(random), evaluator.getCosts(),
+                    evaluator.getModuleKWp(), evaluator.getRoundTripEfficiency(), evaluator.getDegradationPerCycle());
+            for (int c = 0; c < statistics.length; c++) {
+                statistics[c].add(metric.applyAsDouble(year.evaluate(candidates.get(c))));
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,273 @@
+import java.util.function.Supplier;
+
+/**
+ * Receding-horizon (model-predictive) battery dispatch.
+ * At every step the controller plans the next horizonSteps steps from the PV and load forecasts
+ * and the known (day-ahead) price series, applies only the first decision to a {@link Battery}
+ * with the actual PV and load, and re-plans at the next step.
+ *
+ * The horizon problem is solved by dynamic programming over socLevels + 1 SoC levels, starting
+ * from the actual (continuous) state of charge. Each solve is warm-started from the previous plan
+ * shifted by one step: only levels within a band around it are searched. If the optimum touches
+ * the band edge, the step is solved again over all levels. Work arrays are allocated once per run.
+ */
+public class MpcController {
+
+    private final HeadlessEvaluator evaluator;
+    private final int horizonSteps;
+    private final int socLevels;
+    private int band = 8;
+    private boolean gridTrading;
+    private Supplier<ProductionForecaster> pvForecasts;
+    private Supplier<ProductionForecaster> loadForecasts;
+
+    public MpcController(HeadlessEvaluator evaluator, int horizonSteps, int socLevels) {
+        if (horizonSteps < 1 || socLevels < 1 || socLevels > Short.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("horizonSteps must be positive and socLevels within 1.." + (Short.MAX_VALUE - 1));
+        }
+        this.evaluator = evaluator;
+        this.horizonSteps = horizonSteps;
+        this.socLevels = socLevels;
+        // Default: same time yesterday, for PV as well as for the load
+        int stepsPerDay = (int) Math.round(24 / evaluator.getInput().stepHours());
+        this.pvForecasts = () -> new SeasonalNaiveForecaster(stepsPerDay);
+        this.loadForecasts = () -> new SeasonalNaiveForecaster(stepsPerDay);
+    }
+
+    /**
+     * Half width of the warm-start band in levels, 0 solves every step over all levels.
+     */
+    public MpcController setBand(int band) {
+        this.band = Math.max(band, 0);
+        return this;
+    }
+
+    /**
+     * Allows charging from and discharging into the grid, see {@link OptimalDispatch#setGridTrading}.
+     */
+    public MpcController setGridTrading(boolean gridTrading) {
+        this.gridTrading = gridTrading;
+        return this;
+    }
+
+    /**
+     * Forecasters for the PV production and the load of the simulated household [kWh per step].
+     * A new instance is requested for every run.
+     */
+    public MpcController setForecasters(Supplier<ProductionForecaster> pvForecasts,
+                                        Supplier<ProductionForecaster> loadForecasts) {
+        this.pvForecasts = pvForecasts;
+        this.loadForecasts = loadForecasts;
+        return this;
+    }
+
+    /**
+     * Runs the controller over the whole year for the PV and battery size of the configuration.
+     */
+    public DispatchPlan run(Configuration config) {
+        SimulationInput input = evaluator.getInput();
+        double[] load = input.loadArray();
+        double[] purchase = input.purchasePriceArray();
+        double[] feedIn = input.feedInPriceArray();
+        double[] pv = input.pvPerKWpArray();
+        int steps = load.length;
+
+        double kWp = config.getModuleCount() * evaluator.getModuleKWp();
+        double capacity = Math.max(config.getBatteryKWh(), 0);
+        double efficiency = evaluator.getRoundTripEfficiency();
+        double maxPerStep = capacity * config.getCRate() * input.stepHours();
+        int levels = capacity > 0 && maxPerStep > 0 ? socLevels : 0;
+        double delta = levels > 0 ? capacity / levels : 0;
+        int maxStep = levels > 0 ? Math.max(1, Math.min(levels, (int) Math.floor(maxPerStep / delta + 1e-9))) : 0;
+
+        Battery battery = levels > 0
+                ? new Battery(capacity, maxPerStep, maxPerStep, efficiency, evaluator.getDegradationPerCycle())
+                : null;
+        ProductionForecaster pvForecaster = pvForecasts.get();
+        ProductionForecaster loadForecaster = loadForecasts.get();
+        Workspace w = new Workspace(horizonSteps, levels, maxStep);
+
+        double gridImport = 0;
+        double gridExport = 0;
+        double cost = 0;
+        double[] soc = new double[steps];
+
+        for (int t = 0; t < steps; t++) {
+            double production = pv[t] * kWp;
+            double net = production - load[t];
+
+            if (battery != null) {
+                int h = Math.min(horizonSteps, steps - t);
+                for (int k = 0; k < h; k++) {
+                    w.net[k] = pvForecaster.forecast(k + 1) - loadForecaster.forecast(k + 1);
+                }
+                double current = battery.getSOC();
+                int target = w.hasWarmStart && band > 0
+                        ? solve(w, t, h, current, band, purchase, feedIn, delta, efficiency, maxPerStep)
+                        : -1;
+                if (target < 0) {
+                    target = solve(w, t, h, current, levels, purchase, feedIn, delta, efficiency, maxPerStep);
+                }
+                w.hasWarmStart = target >= 0;
+
+                // Apply the first decision to the real battery with the actual PV and load
+                double move = target >= 0 ? target * delta - current : 0;
+                if (move > 0) {
+                    double request = move / efficiency;
+                    if (!gridTrading) {
+                        request = Math.min(request, Math.max(net, 0));
+                    }
+                    net -= battery.charge(request) / efficiency;
+                } else if (move < 0) {
+                    double wanted = -move * efficiency;
+                    if (!gridTrading) {
+                        wanted = Math.min(wanted, Math.max(-net, 0));
+                    }
+                    net += battery.discharge(wanted, true);
+                }
+                soc[t] = battery.getSOC();
+            }
+
+            gridImport += net < 0 ? -net : 0;
+            gridExport += net > 0 ? net : 0;
+            cost += net < 0 ? -net * purchase[t] : -net * feedIn[t];
+            pvForecaster.observe(production);
+            loadForecaster.observe(load[t]);
+        }
+
+        double annualSavings = evaluator.getBaselineCost() - cost;
+        return new DispatchPlan(config, cost, annualSavings, gridImport, gridExport,
+                battery != null ? battery.getCycles() : 0.0, soc);
+    }
+
+    /**
+     * Plans the horizon t..t+h-1 from the continuous SoC. States 1..h (SoC after each step) are
+     * limited to width levels around the warm start (or all levels).
+     *
+     * @return level to reach at the end of step t, -1 if the banded optimum touched the band edge
+     * or no level is reachable
+     */
+    private int solve(Workspace w, int t, int h, double soc, int width, double[] purchase, double[] feedIn,
+                      double delta, double efficiency, double maxPerStep) {
+        int levels = w.levels;
+        boolean banded = width < levels;
+        for (int i = 1; i <= h; i++) {
+            w.lo[i] = banded ? Math.max(0, w.warm[i] - width) : 0;
+            w.hi[i] = banded ? Math.min(levels, w.warm[i] + width) : levels;
+        }
+
+        // Energy left at the end of the horizon is at least worth selling it later
+        double terminalPrice = efficiency * Math.max(feedIn[t + h - 1], 0);
+        double[] next = w.valueA;
+        double[] current = w.valueB;
+        for (int s = w.lo[h]; s <= w.hi[h]; s++) {
+            next[s] = -s * delta * terminalPrice;
+        }
+
+        int maxStep = w.maxStep;
+        for (int i = h - 1; i >= 1; i--) {
+            double net = w.net[i];
+            int maxCharge = gridTrading ? maxStep : net > 0 ? Math.min(maxStep, (int) Math.ceil(net * efficiency / delta - 1e-9)) : 0;
+            int maxDischarge = gridTrading ? maxStep : net < 0 ? Math.min(maxStep, (int) Math.ceil(-net / (efficiency * delta) - 1e-9)) : 0;
+            for (int k = -maxDischarge; k <= maxCharge; k++) {
+                w.moveCost[k + maxStep] = stepCost(residual(net, k * delta, efficiency), purchase[t + i], feedIn[t + i]);
+            }
+            int offset = i * (levels + 1);
+            int nextLo = w.lo[i + 1];
+            int nextHi = w.hi[i + 1];
+            for (int s = w.lo[i]; s <= w.hi[i]; s++) {
+                int from = Math.max(nextLo, s - maxDischarge);
+                int to = Math.min(nextHi, s + maxCharge);
+                double best = Double.POSITIVE_INFINITY;
+                int bestTarget = s;
+                for (int target = from; target <= to; target++) {
+                    double value = w.moveCost[target - s + maxStep] + next[target];
+                    if (value < best) {
+                        best = value;
+                        bestTarget = target;
+                    }
+                }
+                current[s] = best;
+                w.decisions[offset + s] = (short) bestTarget;
+            }
+            double[] swap = next;
+            next = current;
+            current = swap;
+        }
+
+        // First step starts from the continuous SoC
+        double net = w.net[0];
+        double chargeLimit = gridTrading ? maxPerStep : Math.min(maxPerStep, Math.max(net, 0) * efficiency + delta);
+        double dischargeLimit = gridTrading ? maxPerStep : Math.min(maxPerStep, Math.max(-net, 0) / efficiency + delta);
+        double best = Double.POSITIVE_INFINITY;
+        int first = -1;
+        for (int s = w.lo[1]; s <= w.hi[1]; s++) {
+            double move = s * delta - soc;
+            if (move > chargeLimit + 1e-9 || -move > dischargeLimit + 1e-9) {
+                continue;
+            }
+            double value = stepCost(residual(net, move, efficiency), purchase[t], feedIn[t]) + next[s];
+            if (value < best) {
+                best = value;
+                first = s;
+            }
+        }
+        if (first < 0 || best == Double.POSITIVE_INFINITY) {
+            return -1;
+        }
+
+        // Optimal path, checked against the band and kept as warm start for the next step (shifted by one)
+        int level = first;
+        for (int i = 1; i <= h; i++) {
+            if (banded && ((level == w.lo[i] && level > 0) || (level == w.hi[i] && level < levels))) {
+                return -1;
+            }
+            if (i > 1) {
+                w.warm[i - 1] = level;
+            }
+            if (i < h) {
+                level = w.decisions[i * (levels + 1) + level];
+            }
+        }
+        w.warm[h - 1] = level;
+        w.warm[h] = level;
+        return first;
+    }
+
+    // Energy exchanged with the grid when the SoC changes by move (positive = export, negative = import)
+    private static double residual(double net, double move, double efficiency) {
+        return move >= 0 ? net - move / efficiency : net - move * efficiency;
+    }
+
+    private static double stepCost(double residual, double purchasePrice, double feedInPrice) {
+        return residual < 0 ? -residual * purchasePrice : -residual * feedInPrice;
+    }
+
+    // Preallocated arrays reused by every solve of one run
+    private static final class Workspace {
+        final int levels;
+        final int maxStep;
+        final double[] net;         // Forecast PV minus load of the horizon steps [kWh]
+        final double[] valueA;
+        final double[] valueB;
+        final double[] moveCost;    // Step cost of moving k levels, index k + maxStep
+        final short[] decisions;    // Best next level per horizon step and level
+        final int[] lo;
+        final int[] hi;
+        final int[] warm;           // Plan of the last solve, shifted to the current step
+        boolean hasWarmStart;
+
+        Workspace(int horizon, int levels, int maxStep) {
+            this.levels = levels;
+            this.maxStep = maxStep;
+            this.net = new double[horizon];
+            this.valueA = new double[levels + 1];
+            this.valueB = new double[levels + 1];
+            this.moveCost = new double[2 * maxStep + 1];
+            this.decisions = new short[horizon * (levels + 1)];
+            this.lo = new int[horizon + 1];
+            this.hi = new int[horizon + 1];
+            this.warm = new int[horizon + 1];
+        }
+    }
+}
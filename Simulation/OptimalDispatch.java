@@ -0,0 +1,180 @@
+import java.util.stream.IntStream;
+
+/**
+ * Perfect-foresight battery dispatch by backward dynamic programming.
+ * The state of charge is discretised into socLevels + 1 levels between empty and full; in every
+ * step the battery may move to any level within its power limit. Charging and discharging follow
+ * {@link Battery} (charging stores requested * efficiency, discharging delivers removed * efficiency),
+ * the step cost uses the purchase and feed-in price series of the input, e.g. spot prices.
+ *
+ * The value table is rolled over two layers of socLevels + 1 doubles. Recovering the trajectory
+ * additionally stores one short per step and level. The result is the benchmark that heuristic
+ * trading strategies can at best reach (up to the SoC discretisation; degradation is ignored).
+ * Cost is O(steps * levels * power limit in levels): 100 to 200 levels take well under a second
+ * for a year of 15-minute steps. Coarse grids lose energy to rounding, so with few levels the
+ * optimum can stay slightly below a heuristic that is already optimal (e.g. self-consumption at
+ * flat prices); the gap shrinks with the level count.
+ */
+public class OptimalDispatch {
+
+    // Levels from which one step is split over the common pool
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private final HeadlessEvaluator evaluator;
+    private final int socLevels;
+    private boolean gridTrading;
+    private boolean parallel = true;
+
+    public OptimalDispatch(HeadlessEvaluator evaluator, int socLevels) {
+        if (socLevels < 1 || socLevels > Short.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("socLevels must be within 1.." + (Short.MAX_VALUE - 1));
+        }
+        this.evaluator = evaluator;
+        this.socLevels = socLevels;
+    }
+
+    /**
+     * Allows charging from the grid and discharging into the grid (off by default: the battery
+     * only stores own PV surplus and only covers own demand, like the heuristic strategies).
+     */
+    public OptimalDispatch setGridTrading(boolean gridTrading) {
+        this.gridTrading = gridTrading;
+        return this;
+    }
+
+    /**
+     * Splits the levels of one step between threads when there are at least 512 of them.
+     */
+    public OptimalDispatch setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Optimal dispatch of the PV and battery size of the configuration, its strategy is ignored.
+     *
+     * @param withTrajectory also reconstruct the SoC of every step (needs steps * levels shorts)
+     */
+    public DispatchPlan solve(Configuration config, boolean withTrajectory) {
+        SimulationInput input = evaluator.getInput();
+        double[] load = input.loadArray();
+        double[] purchase = input.purchasePriceArray();
+        double[] feedIn = input.feedInPriceArray();
+        double[] pv = input.pvPerKWpArray();
+        int steps = load.length;
+
+        double kWp = config.getModuleCount() * evaluator.getModuleKWp();
+        double capacity = Math.max(config.getBatteryKWh(), 0);
+        double efficiency = evaluator.getRoundTripEfficiency();
+        int levels = capacity > 0 ? socLevels : 0;
+        double delta = levels > 0 ? capacity / levels : 0;
+        int maxStep = levels > 0
+                ? Math.min(levels, (int) Math.floor(capacity * config.getCRate() * input.stepHours() / delta + 1e-9))
+                : 0;
+
+        double[] next = new double[levels + 1];  // V(t+1, level), 0 after the last step
+        double[] current = new double[levels + 1];
+        double[] moveCost = new double[2 * maxStep + 1]; // Step cost of moving k levels, index k + maxStep
+        short[] decisions = withTrajectory ? new short[steps * (levels + 1)] : null;
+
+        for (int t = steps - 1; t >= 0; t--) {
+            double net = pv[t] * kWp - load[t];
+            int maxCharge = maxCharge(net, maxStep, delta, efficiency);
+            int maxDischarge = maxDischarge(net, maxStep, delta, efficiency);
+            for (int k = -maxDischarge; k <= maxCharge; k++) {
+                moveCost[k + maxStep] = stepCost(residual(net, k, delta, efficiency), purchase[t], feedIn[t]);
+            }
+
+            double[] v = next;
+            double[] out = current;
+            int offset = t * (levels + 1);
+            if (parallel && levels + 1 >= PARALLEL_THRESHOLD) {
+                IntStream.range(0, levels + 1).parallel().forEach(s ->
+                        relax(s, levels, maxCharge, maxDischarge, maxStep, moveCost, v, out, decisions, offset));
+            } else {
+                for (int s = 0; s <= levels; s++) {
+                    relax(s, levels, maxCharge, maxDischarge, maxStep, moveCost, v, out, decisions, offset);
+                }
+            }
+            current = next;
+            next = out;
+        }
+        double energyCost = next[0]; // Battery starts empty, as Battery does
+
+        double gridImport = 0;
+        double gridExport = 0;
+        double throughput = 0;
+        double[] soc = null;
+        if (withTrajectory) {
+            soc = new double[steps];
+            int s = 0;
+            for (int t = 0; t < steps; t++) {
+                int target = decisions[t * (levels + 1) + s];
+                double r = residual(pv[t] * kWp - load[t], target - s, delta, efficiency);
+                gridImport += r < 0 ? -r : 0;
+                gridExport += r > 0 ? r : 0;
+                throughput += Math.abs(target - s) * delta;
+                s = target;
+                soc[t] = s * delta;
+            }
+        }
+        double annualSavings = evaluator.getBaselineCost() - energyCost;
+        return new DispatchPlan(config, energyCost, annualSavings, gridImport, gridExport,
+                capacity > 0 ? throughput / capacity : 0.0, soc);
+    }
+
+    /**
+     * Bill of the optimal dispatch only, without trajectory (memory O(levels)).
+     */
+    public double minimumEnergyCost(Configuration config) {
+        return solve(config, false).getEnergyCost();
+    }
+
+    // V(t, s) = min over reachable s' of cost(s' - s) + V(t + 1, s')
+    private static void relax(int s, int levels, int maxCharge, int maxDischarge, int maxStep,
+                              double[] moveCost, double[] next, double[] out, short[] decisions, int offset) {
+        int lo = Math.max(0, s - maxDischarge);
+        int hi = Math.min(levels, s + maxCharge);
+        double best = Double.POSITIVE_INFINITY;
+        int bestTarget = s;
+        for (int target = lo; target <= hi; target++) {
+            double value = moveCost[target - s + maxStep] + next[target];
+            if (value < best) {
+                best = value;
+                bestTarget = target;
+            }
+        }
+        out[s] = best;
+        if (decisions != null) {
+            decisions[offset + s] = (short) bestTarget;
+        }
+    }
+
+    // Levels the battery may rise in this step; without grid trading only PV surplus can be stored.
+    // Rounded up, so the last partial level may be topped up from the grid (at the real price):
+    // rounding down would make small surpluses unusable and the optimum worse than simple heuristics
+    private int maxCharge(double net, int maxStep, double delta, double efficiency) {
+        if (maxStep == 0 || gridTrading) {
+            return maxStep;
+        }
+        return net > 0 ? Math.min(maxStep, (int) Math.ceil(net * efficiency / delta - 1e-9)) : 0;
+    }
+
+    // Levels the battery may fall in this step; without grid trading it only covers own demand
+    // (rounded up as well, the excess of the last level is fed in)
+    private int maxDischarge(double net, int maxStep, double delta, double efficiency) {
+        if (maxStep == 0 || gridTrading) {
+            return maxStep;
+        }
+        return net < 0 ? Math.min(maxStep, (int) Math.ceil(-net / (efficiency * delta) - 1e-9)) : 0;
+    }
+
+    // Energy exchanged with the grid when moving k levels (positive = export, negative = import)
+    private static double residual(double net, int k, double delta, double efficiency) {
+        return k >= 0 ? net - k * delta / efficiency : net - k * delta * efficiency;
+    }
+
+    private static double stepCost(double residual, double purchasePrice, double feedInPrice) {
+        return residual < 0 ? -residual * purchasePrice : -residual * feedInPrice;
+    }
+}
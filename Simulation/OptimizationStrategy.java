@@ -0,0 +1,16 @@
+/**
+ * Search strategy over the integer coordinates of a {@link SweepGrid} (see {@link SweepGrid#shape()}).
+ * Implementations should propose candidates in batches through
+ * {@link MemoizedEvaluator#evaluateAll} so they are simulated in parallel.
+ */
+public interface OptimizationStrategy {
+
+    /**
+     * Searches for the configuration with the highest net savings.
+     *
+     * @param maxSimulations stop once the evaluator has simulated this many new distinct configurations
+     *                       (checked between batches, so the last batch may exceed it)
+     * @return best result found
+     */
+    EvaluationResult optimize(MemoizedEvaluator evaluator, int maxSimulations);
+}
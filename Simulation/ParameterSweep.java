@@ -0,0 +1,112 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel full-factorial parameter search over a {@link SweepGrid}.
+ * The grid is split into index ranges on a ForkJoin pool; every worker evaluates its
+ * candidates with the shared, read-only {@link HeadlessEvaluator} (battery and PV state
+ * live in the worker's own stack frame) and streams each result to the sink.
+ *
+ * With pruning enabled, workers share the best net savings found so far (the incumbent).
+ * Candidates whose upper bound cannot beat it are skipped or aborted partway through the year
+ * and never reach the sink, so the sink is only guaranteed to see the optimum.
+ */
+public class ParameterSweep {
+
+    // Candidates per leaf task: large enough to amortise task overhead, small enough for balancing
+    private static final int CHUNK_SIZE = 16;
+
+    private final HeadlessEvaluator evaluator;
+    private final ForkJoinPool pool;
+    private boolean pruning;
+
+    public ParameterSweep(HeadlessEvaluator evaluator) {
+        this(evaluator, ForkJoinPool.commonPool());
+    }
+
+    public ParameterSweep(HeadlessEvaluator evaluator, ForkJoinPool pool) {
+        this.evaluator = evaluator;
+        this.pool = pool;
+    }
+
+    /**
+     * Enables bound-based pruning against the incumbent (off by default).
+     */
+    public ParameterSweep setPruning(boolean pruning) {
+        this.pruning = pruning;
+        return this;
+    }
+
+    /**
+     * Evaluates every candidate of the grid and blocks until all results were passed to the sink.
+     *
+     * @return number of results passed to the sink (the rest was pruned)
+     */
+    public long run(SweepGrid grid, ResultSink sink) {
+        return run(grid, 0, grid.size(), sink);
+    }
+
+    /**
+     * Evaluates the candidates with index from (inclusive) to to (exclusive).
+     */
+    public long run(SweepGrid grid, long from, long to, ResultSink sink) {
+        return run(grid, from, to, sink, new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY));
+    }
+
+    /**
+     * Evaluates a range starting from a known incumbent, e.g. restored from a checkpoint.
+     * The accumulator holds the best net savings of the range and the incumbent afterwards.
+     */
+    long run(SweepGrid grid, long from, long to, ResultSink sink, DoubleAccumulator incumbent) {
+        LongAdder evaluated = new LongAdder();
+        pool.invoke(new SweepTask(grid, from, to, sink, evaluated, incumbent));
+        return evaluated.sum();
+    }
+
+    private final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SweepGrid grid;
+        private final long from;
+        private final long to;
+        private final ResultSink sink;
+        private final LongAdder evaluated;
+        private final DoubleAccumulator incumbent;
+
+        SweepTask(SweepGrid grid, long from, long to, ResultSink sink, LongAdder evaluated, DoubleAccumulator incumbent) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+            this.evaluated = evaluated;
+            this.incumbent = incumbent;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (long i = from; i < to; i++) {
+                    Configuration config = grid.get(i);
+                    EvaluationResult result;
+                    if (pruning) {
+                        result = evaluator.evaluate(config, incumbent.get());
+                        if (result == null) {
+                            continue;
+                        }
+                    } else {
+                        result = evaluator.evaluate(config);
+                    }
+                    incumbent.accumulate(result.getNetSavings());
+                    sink.accept(result);
+                    evaluated.increment();
+                }
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(grid, from, mid, sink, evaluated, incumbent),
+                    new SweepTask(grid, mid, to, sink, evaluated, incumbent));
+        }
+    }
+}
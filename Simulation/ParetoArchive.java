@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Non-dominated set of results for two objectives: a cost to minimise and a benefit to maximise
+ * (e.g. investment vs. autarky). The front is kept sorted by cost with strictly increasing
+ * benefit, so inserting is O(log n) plus the removed points, and "best benefit for at most
+ * this cost" is a single floor lookup. Thread-safe.
+ */
+public class ParetoArchive {
+
+    private final ToDoubleFunction<EvaluationResult> cost;
+    private final ToDoubleFunction<EvaluationResult> benefit;
+    private final TreeMap<Double, EvaluationResult> front = new TreeMap<>();
+
+    public ParetoArchive(ToDoubleFunction<EvaluationResult> cost, ToDoubleFunction<EvaluationResult> benefit) {
+        this.cost = cost;
+        this.benefit = benefit;
+    }
+
+    /**
+     * Adds the result unless it is dominated; removes the points it dominates.
+     *
+     * @return true if the result is now part of the front
+     */
+    public synchronized boolean add(EvaluationResult result) {
+        double c = cost.applyAsDouble(result);
+        double b = benefit.applyAsDouble(result);
+        Map.Entry<Double, EvaluationResult> cheaper = front.floorEntry(c);
+        if (cheaper != null && benefit.applyAsDouble(cheaper.getValue()) >= b) {
+            return false;
+        }
+        // Points that cost at least as much and bring no more benefit are dominated now
+        Map.Entry<Double, EvaluationResult> next = front.ceilingEntry(c);
+        while (next != null && benefit.applyAsDouble(next.getValue()) <= b) {
+            front.remove(next.getKey());
+            next = front.higherEntry(next.getKey());
+        }
+        front.put(c, result);
+        return true;
+    }
+
+    /**
+     * Highest benefit with a cost of at most maxCost, null if nothing is that cheap.
+     */
+    public synchronized EvaluationResult best(double maxCost) {
+        Map.Entry<Double, EvaluationResult> entry = front.floorEntry(maxCost);
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Cheapest result reaching at least minBenefit, null if none does.
+     */
+    public synchronized EvaluationResult cheapest(double minBenefit) {
+        for (EvaluationResult result : front.values()) {
+            if (benefit.applyAsDouble(result) >= minBenefit) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Front sorted by increasing cost (and benefit).
+     */
+    public synchronized List<EvaluationResult> getFront() {
+        return new ArrayList<>(front.values());
+    }
+
+    public synchronized int size() {
+        return front.size();
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Purchase and feed-in price vectors of one tariff scenario [€/kWh per step] together with the
+ * yearly bill without PV and battery. Created by {@link FlowCache#scenario}; the arrays are
+ * shared and must not be modified afterwards.
+ */
+public final class PriceScenario {
+
+    private final double[] purchasePrice;
+    private final double[] feedInPrice;
+    private final double baselineCost;
+
+    PriceScenario(SimulationInput input, double[] purchasePrice, double[] feedInPrice) {
+        int steps = input.steps();
+        if (purchasePrice.length != steps || feedInPrice.length != steps) {
+            throw new IllegalArgumentException("Price vectors must have " + steps + " steps: purchase="
+                    + purchasePrice.length + ", feedIn=" + feedInPrice.length);
+        }
+        this.purchasePrice = purchasePrice;
+        this.feedInPrice = feedInPrice;
+        double[] load = input.loadArray();
+        double bill = 0;
+        for (int t = 0; t < steps; t++) {
+            bill += load[t] * purchasePrice[t];
+        }
+        this.baselineCost = bill;
+    }
+
+    public double getBaselineCost() {
+        return baselineCost;
+    }
+
+    double[] purchasePriceArray() {
+        return purchasePrice;
+    }
+
+    double[] feedInPriceArray() {
+        return feedInPrice;
+    }
+}
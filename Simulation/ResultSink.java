@@ -0,0 +1,9 @@
+/**
+ * Receives evaluation results as soon as they are available.
+ * Called concurrently from several worker threads, implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    void accept(EvaluationResult result);
+}
@@ -0,0 +1,291 @@
+import java.io.Flushable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Result sink that keeps sweep and optimizer results queryable.
+ * In memory it maintains a top-K heap by net savings and two Pareto archives
+ * (investment vs. autarky and investment vs. net savings), so the usual questions answer
+ * instantly regardless of how many points were evaluated. Optionally all results are appended
+ * to an HSQLDB table (created via {@link AnyLogicDBUtil#createTable}, indexed on net savings and
+ * investment) in batches of 10,000 rows; queries the memory structures cannot answer fall back to it.
+ *
+ * Thread-safe: sweep workers may call {@link #accept} concurrently. Call {@link #close} (or
+ * {@link #flush}) to write the last batch.
+ */
+public class ResultStore implements ResultSink, Flushable, AutoCloseable {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] COLUMNS = {"module_count", "battery_kwh", "c_rate", "strategy", "price_threshold",
+            "net_savings", "annual_savings", "investment", "autarky", "pv_production", "load_kwh",
+            "grid_import", "grid_export", "battery_cycles"};
+
+    private final int topK;
+    private final PriorityQueue<EvaluationResult> top =
+            new PriorityQueue<>(Comparator.comparingDouble(EvaluationResult::getNetSavings));
+    private final ParetoArchive autarkyFront = new ParetoArchive(EvaluationResult::getInvestment, EvaluationResult::getAutarky);
+    private final ParetoArchive savingsFront = new ParetoArchive(EvaluationResult::getInvestment, EvaluationResult::getNetSavings);
+
+    private final Connection conn;
+    private final String table;
+    private final Object writeLock = new Object();
+    private List<EvaluationResult> batch = new ArrayList<>(BATCH_SIZE);
+    private final TreeSet<Long> batchesInFlight = new TreeSet<>(); // Numbers of batches taken out but not yet written
+    private long batchNumber;
+    private long count;
+
+    /**
+     * Memory-only store.
+     */
+    public ResultStore(int topK) {
+        this.topK = topK;
+        this.conn = null;
+        this.table = null;
+    }
+
+    /**
+     * Store that also appends every result to the given table.
+     */
+    public ResultStore(Connection conn, String table, int topK, boolean replaceTable) throws SQLException {
+        this.topK = topK;
+        this.conn = conn;
+        this.table = AnyLogicDBUtil.sanitizeTableName(table);
+
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String column : COLUMNS) {
+            columns.put(column, "DOUBLE");
+        }
+        columns.put("module_count", "INTEGER");
+        columns.put("strategy", "VARCHAR(32)");
+        AnyLogicDBUtil.createTable(conn, this.table, columns, replaceTable);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS " + this.table + "_savings ON " + this.table + " (net_savings)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS " + this.table + "_investment ON " + this.table + " (investment)");
+        }
+    }
+
+    @Override
+    public void accept(EvaluationResult result) {
+        autarkyFront.add(result);
+        savingsFront.add(result);
+        List<EvaluationResult> full = null;
+        long number = 0;
+        synchronized (this) {
+            count++;
+            if (top.size() < topK) {
+                top.add(result);
+            } else if (topK > 0 && result.getNetSavings() > top.peek().getNetSavings()) {
+                top.poll();
+                top.add(result);
+            }
+            if (conn != null) {
+                batch.add(result);
+                if (batch.size() >= BATCH_SIZE) {
+                    full = batch;
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    number = ++batchNumber;
+                    batchesInFlight.add(number);
+                }
+            }
+        }
+        // Written outside of the lock, other workers keep adding to the next batch meanwhile
+        if (full != null) {
+            writeInFlight(full, number);
+        }
+    }
+
+    /**
+     * The n best results by net savings with an investment of at most maxInvestment.
+     * Answered from the top-K heap when it holds enough of them, otherwise from the table.
+     */
+    public List<EvaluationResult> best(int n, double maxInvestment) throws SQLException {
+        List<EvaluationResult> result = new ArrayList<>(n);
+        boolean complete;
+        synchronized (this) {
+            for (EvaluationResult r : topSorted()) {
+                if (r.getInvestment() <= maxInvestment) {
+                    result.add(r);
+                    if (result.size() == n) {
+                        break;
+                    }
+                }
+            }
+            // The heap holds every result better than its minimum, so a full answer from it is exact
+            complete = result.size() == n || top.size() == count;
+        }
+        if (complete || conn == null) {
+            return result;
+        }
+        flush();
+        return query("WHERE investment <= ? ORDER BY net_savings DESC LIMIT " + n, maxInvestment);
+    }
+
+    /**
+     * Highest net savings for at most maxInvestment, null if no result is that cheap.
+     */
+    public EvaluationResult bestUnderBudget(double maxInvestment) {
+        return savingsFront.best(maxInvestment);
+    }
+
+    /**
+     * Investment vs. autarky trade-off: cheapest way to every reachable autarky level.
+     */
+    public List<EvaluationResult> getAutarkyFront() {
+        return autarkyFront.getFront();
+    }
+
+    /**
+     * Investment vs. net savings trade-off.
+     */
+    public List<EvaluationResult> getSavingsFront() {
+        return savingsFront.getFront();
+    }
+
+    /**
+     * Cheapest result with at least the given autarky [0..1], null if none reaches it.
+     */
+    public EvaluationResult cheapestWithAutarky(double minAutarky) {
+        return autarkyFront.cheapest(minAutarky);
+    }
+
+    /**
+     * The top-K results, best first.
+     */
+    public synchronized List<EvaluationResult> top() {
+        return topSorted();
+    }
+
+    private List<EvaluationResult> topSorted() {
+        List<EvaluationResult> sorted = new ArrayList<>(top);
+        sorted.sort(Comparator.comparingDouble(EvaluationResult::getNetSavings).reversed());
+        return sorted;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the pending batch to the table and waits for batches other threads are still writing,
+     * so the table holds every result accepted before the call. Batches full after the call are not waited for.
+     */
+    @Override
+    public void flush() {
+        if (conn == null) {
+            return;
+        }
+        List<EvaluationResult> pending = null;
+        long last;
+        synchronized (this) {
+            if (!batch.isEmpty()) {
+                pending = batch;
+                batch = new ArrayList<>(BATCH_SIZE);
+                batchesInFlight.add(++batchNumber);
+            }
+            last = batchNumber;
+        }
+        if (pending != null) {
+            writeInFlight(pending, last);
+        }
+        synchronized (this) {
+            while (!batchesInFlight.isEmpty() && batchesInFlight.first() <= last) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Warten auf laufende Schreibvorgänge unterbrochen", e); // Interrupted while waiting for pending writes
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    // Writes a batch registered in batchesInFlight and wakes up flush once it is done, also on failure
+    private void writeInFlight(List<EvaluationResult> rows, long number) {
+        try {
+            write(rows);
+        } finally {
+            synchronized (this) {
+                batchesInFlight.remove(number);
+                notifyAll();
+            }
+        }
+    }
+
+    private void write(List<EvaluationResult> rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+                .append(String.join(", ", COLUMNS)).append(") VALUES (");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(")");
+
+        synchronized (writeLock) {
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    for (EvaluationResult r : rows) {
+                        Configuration c = r.getConfiguration();
+                        ps.setInt(1, c.getModuleCount());
+                        ps.setDouble(2, c.getBatteryKWh());
+                        ps.setDouble(3, c.getCRate());
+                        ps.setString(4, c.getStrategy().name());
+                        ps.setDouble(5, c.getPriceThreshold());
+                        ps.setDouble(6, r.getNetSavings());
+                        ps.setDouble(7, r.getAnnualSavings());
+                        ps.setDouble(8, r.getInvestment());
+                        ps.setDouble(9, r.getAutarky());
+                        ps.setDouble(10, r.getPvProduction());
+                        ps.setDouble(11, r.getLoad());
+                        ps.setDouble(12, r.getGridImport());
+                        ps.setDouble(13, r.getGridExport());
+                        ps.setDouble(14, r.getBatteryCycles());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Ergebnisse konnten nicht gespeichert werden: " + e.getMessage(), e); // Results could not be stored
+            }
+        }
+    }
+
+    private List<EvaluationResult> query(String condition, double parameter) throws SQLException {
+        List<EvaluationResult> results = new ArrayList<>();
+        synchronized (writeLock) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT " + String.join(", ", COLUMNS) + " FROM " + table + " " + condition)) {
+                ps.setDouble(1, parameter);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Configuration c = new Configuration(rs.getInt(1), rs.getDouble(2), rs.getDouble(3),
+                                TradingStrategy.valueOf(rs.getString(4)), rs.getDouble(5));
+                        results.add(new EvaluationResult(c, rs.getDouble(6), rs.getDouble(7), rs.getDouble(8),
+                                rs.getDouble(10), rs.getDouble(11), rs.getDouble(12), rs.getDouble(13), rs.getDouble(14)));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,149 @@
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic years for the Monte Carlo engine.
+ * A year is assembled from blocks of consecutive days drawn from the base year (block bootstrap).
+ * A block for a given day of the year is drawn from days within a seasonal window around it, and
+ * PV, load and prices of a day are always taken together, so their daily correlation is kept.
+ * Price shocks scale the purchase and feed-in price of the whole year (log-normal level shock
+ * with mean 1) and multiply the purchase price of single days (spikes).
+ */
+public class ScenarioGenerator {
+
+    private final SimulationInput base;
+    private final int stepsPerDay;
+    private final int days;
+    private final int blockDays;
+    private final int windowDays;
+
+    private double purchaseLevelSigma;
+    private double feedInLevelSigma;
+    private double spikeProbability;   // Per day
+    private double spikeFactor = 1.0;
+
+    private LoadProfileGenerator loadGenerator; // Synthetic household load instead of the bootstrapped one
+    private LocalDateTime loadStart;
+    private double annualConsumption;
+    private int loadVariants;
+
+    /**
+     * @param blockDays  length of one bootstrap block in days (e.g. 3-7 to keep weather spells)
+     * @param windowDays blocks for day d start within d ± windowDays (e.g. 15 to keep the season)
+     */
+    public ScenarioGenerator(SimulationInput base, int blockDays, int windowDays) {
+        this.base = base;
+        this.stepsPerDay = (int) Math.round(24 / base.stepHours());
+        this.days = base.steps() / stepsPerDay;
+        if (days < 1 || blockDays < 1 || blockDays > days || windowDays < 0) {
+            throw new IllegalArgumentException("Base year must contain at least one block of whole days");
+        }
+        this.blockDays = blockDays;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Enables price shocks.
+     *
+     * @param purchaseLevelSigma log-normal sigma of the yearly purchase price level (0 = off)
+     * @param feedInLevelSigma   log-normal sigma of the yearly feed-in price level (0 = off, e.g. fixed tariff)
+     * @param spikeProbability   probability of a price spike per day
+     * @param spikeFactor        multiplier of the purchase price on a spike day
+     */
+    public ScenarioGenerator setPriceShocks(double purchaseLevelSigma, double feedInLevelSigma,
+                                            double spikeProbability, double spikeFactor) {
+        this.purchaseLevelSigma = purchaseLevelSigma;
+        this.feedInLevelSigma = feedInLevelSigma;
+        this.spikeProbability = spikeProbability;
+        this.spikeFactor = spikeFactor;
+        return this;
+    }
+
+    /**
+     * Replaces the bootstrapped load by one of loadVariants synthetic profiles of the generator
+     * (seeds 0 .. loadVariants - 1, each generated once and shared via {@link LoadProfileGenerator#shared}).
+     *
+     * @param start first time step of the simulation grid
+     */
+    public ScenarioGenerator setLoadProfiles(LoadProfileGenerator generator, LocalDateTime start,
+                                             double annualConsumption, int loadVariants) {
+        if (loadVariants < 1) {
+            throw new IllegalArgumentException("At least one load variant is needed");
+        }
+        this.loadGenerator = generator;
+        this.loadStart = start;
+        this.annualConsumption = annualConsumption;
+        this.loadVariants = loadVariants;
+        return this;
+    }
+
+    /**
+     * Draws one synthetic year. The same random state always gives the same year.
+     */
+    public SimulationInput generate(SplittableRandom random) {
+        int steps = base.steps();
+        double[] pvBase = base.pvPerKWpArray();
+        double[] loadBase = base.loadArray();
+        double[] purchaseBase = base.purchasePriceArray();
+        double[] feedInBase = base.feedInPriceArray();
+
+        double[] pv = new double[steps];
+        double[] load = new double[steps];
+        double[] purchase = new double[steps];
+        double[] feedIn = new double[steps];
+
+        for (int day = 0; day < days; day += blockDays) {
+            int length = Math.min(blockDays, days - day);
+            int lo = Math.max(0, day - windowDays);
+            int hi = Math.min(days - length, day + windowDays);
+            int source = lo >= hi ? Math.min(day, days - length) : lo + random.nextInt(hi - lo + 1);
+            int from = source * stepsPerDay;
+            int to = day * stepsPerDay;
+            int n = length * stepsPerDay;
+            System.arraycopy(pvBase, from, pv, to, n);
+            System.arraycopy(loadBase, from, load, to, n);
+            System.arraycopy(purchaseBase, from, purchase, to, n);
+            System.arraycopy(feedInBase, from, feedIn, to, n);
+        }
+        // Steps after the last whole day are kept as they are
+        int tail = days * stepsPerDay;
+        System.arraycopy(pvBase, tail, pv, tail, steps - tail);
+        System.arraycopy(loadBase, tail, load, tail, steps - tail);
+        System.arraycopy(purchaseBase, tail, purchase, tail, steps - tail);
+        System.arraycopy(feedInBase, tail, feedIn, tail, steps - tail);
+
+        double purchaseLevel = levelShock(random, purchaseLevelSigma);
+        double feedInLevel = levelShock(random, feedInLevelSigma);
+        for (int day = 0; day * stepsPerDay < steps; day++) {
+            double factor = purchaseLevel;
+            if (spikeProbability > 0 && random.nextDouble() < spikeProbability) {
+                factor *= spikeFactor;
+            }
+            int end = Math.min(steps, (day + 1) * stepsPerDay);
+            for (int t = day * stepsPerDay; t < end; t++) {
+                purchase[t] *= factor;
+                feedIn[t] *= feedInLevel;
+            }
+        }
+        if (loadGenerator != null) {
+            load = loadGenerator.shared(loadStart, base.getIntervalMinutes(), steps, annualConsumption,
+                    random.nextInt(loadVariants));
+        }
+        return new SimulationInput(new ProductionProfile(pv, base.getIntervalMinutes()), load, purchase, feedIn);
+    }
+
+    // Log-normal factor with mean 1
+    private static double levelShock(SplittableRandom random, double sigma) {
+        if (sigma <= 0) {
+            return 1.0;
+        }
+        return Math.exp(sigma * gaussian(random) - sigma * sigma / 2);
+    }
+
+    // Standard normal value (Box-Muller), SplittableRandom has no nextGaussian
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble(); // (0, 1]
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+}
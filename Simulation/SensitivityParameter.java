@@ -0,0 +1,20 @@
+/**
+ * Uncertain inputs of the net savings examined by {@link SobolAnalysis}.
+ */
+public enum SensitivityParameter {
+
+    /** PV module price incl. mounting [€/module]. */
+    MODULE_PRICE,
+
+    /** Battery storage price [€/kWh]. */
+    BATTERY_PRICE,
+
+    /** Capacity loss per full cycle [1/cycle], fades the battery over the lifetime. */
+    DEGRADATION,
+
+    /** Factor on the feed-in price series, 1 = prices of the input. */
+    FEED_IN_LEVEL,
+
+    /** Factor on the purchase price series, 1 = prices of the input. */
+    PURCHASE_LEVEL
+}
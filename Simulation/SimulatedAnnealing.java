@@ -0,0 +1,120 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulated annealing on the grid coordinates.
+ * Each iteration proposes a batch of neighbours of the current point, simulates them in parallel
+ * and then applies the Metropolis acceptance rule to them one after another. The step width
+ * shrinks with the temperature; the start temperature is calibrated from the spread of the
+ * first batch, so no knowledge about the magnitude of the net savings is needed.
+ */
+public class SimulatedAnnealing implements OptimizationStrategy {
+
+    // Stop after this many batches without a new simulation (search has frozen)
+    private static final int MAX_STALLED_BATCHES = 50;
+
+    private final int batchSize;
+    private final double coolingFactor; // Temperature multiplier per batch
+    private final long seed;
+
+    public SimulatedAnnealing(int batchSize, double coolingFactor, long seed) {
+        if (batchSize < 1 || coolingFactor <= 0 || coolingFactor >= 1) {
+            throw new IllegalArgumentException("batchSize must be positive and coolingFactor within (0, 1)");
+        }
+        this.batchSize = batchSize;
+        this.coolingFactor = coolingFactor;
+        this.seed = seed;
+    }
+
+    public SimulatedAnnealing(long seed) {
+        this(Math.max(8, Runtime.getRuntime().availableProcessors()), 0.95, seed);
+    }
+
+    @Override
+    public EvaluationResult optimize(MemoizedEvaluator evaluator, int maxSimulations) {
+        Random random = new Random(seed);
+        int[] shape = evaluator.getGrid().shape();
+        int limit = evaluator.getSimulationCount() + maxSimulations;
+
+        // Random start batch: starting point and temperature calibration
+        List<int[]> start = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int[] c = new int[shape.length];
+            for (int axis = 0; axis < shape.length; axis++) {
+                c[axis] = random.nextInt(shape[axis]);
+            }
+            start.add(c);
+        }
+        List<EvaluationResult> results = evaluator.evaluateAll(start);
+        int[] current = start.get(0);
+        EvaluationResult currentResult = results.get(0);
+        double mean = 0;
+        for (int i = 0; i < results.size(); i++) {
+            mean += results.get(i).getNetSavings() / results.size();
+            if (results.get(i).getNetSavings() > currentResult.getNetSavings()) {
+                current = start.get(i);
+                currentResult = results.get(i);
+            }
+        }
+        double variance = 0;
+        for (EvaluationResult r : results) {
+            variance += (r.getNetSavings() - mean) * (r.getNetSavings() - mean) / results.size();
+        }
+        double startTemperature = Math.max(Math.sqrt(variance), 1e-6);
+        double temperature = startTemperature;
+        EvaluationResult best = currentResult;
+
+        int stalled = 0;
+        while (evaluator.getSimulationCount() < limit && temperature > startTemperature * 1e-4 && stalled < MAX_STALLED_BATCHES) {
+            double radiusShare = temperature / startTemperature;
+            List<int[]> neighbours = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                neighbours.add(neighbour(current, shape, radiusShare, random));
+            }
+            int before = evaluator.getSimulationCount();
+            results = evaluator.evaluateAll(neighbours);
+            stalled = evaluator.getSimulationCount() == before ? stalled + 1 : 0;
+
+            for (int i = 0; i < neighbours.size(); i++) {
+                EvaluationResult candidate = results.get(i);
+                double delta = candidate.getNetSavings() - currentResult.getNetSavings();
+                if (delta >= 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+                    current = neighbours.get(i);
+                    currentResult = candidate;
+                    if (candidate.getNetSavings() > best.getNetSavings()) {
+                        best = candidate;
+                    }
+                }
+            }
+            temperature *= coolingFactor;
+        }
+        return best;
+    }
+
+    // Moves one random axis by up to radiusShare * axis length (at least one step), clamped to the grid
+    private static int[] neighbour(int[] current, int[] shape, double radiusShare, Random random) {
+        int[] next = current.clone();
+        int axis;
+        do {
+            axis = random.nextInt(shape.length);
+        } while (shape[axis] <= 1 && hasFreeAxis(shape));
+        if (shape[axis] <= 1) {
+            return next;
+        }
+        int radius = Math.max(1, (int) Math.round(radiusShare * (shape[axis] - 1) / 2));
+        int step = 1 + random.nextInt(radius);
+        next[axis] += random.nextBoolean() ? step : -step;
+        next[axis] = Math.max(0, Math.min(shape[axis] - 1, next[axis]));
+        return next;
+    }
+
+    private static boolean hasFreeAxis(int[] shape) {
+        for (int size : shape) {
+            if (size > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+/**
+ * Aligned, read-only yearly input series of the headless simulation.
+ * All arrays have one entry per time step and are shared between evaluations and threads,
+ * so they must not be modified after construction.
+ */
+public final class SimulationInput {
+
+    private final ProductionProfile pv;    // PV production per kWp [kWh/kWp]
+    private final double[] pvPerKWp;       // Same values, cut to the simulated steps
+    private final double[] load;           // Household (and heat pump) demand [kWh]
+    private final double[] purchasePrice;  // Grid purchase price [€/kWh]
+    private final double[] feedInPrice;    // Feed-in remuneration [€/kWh]
+    private final int intervalMinutes;
+
+    public SimulationInput(ProductionProfile pv, double[] load, double[] purchasePrice, double[] feedInPrice) {
+        int steps = load.length;
+        if (pv.length() < steps || purchasePrice.length != steps || feedInPrice.length != steps) {
+            throw new IllegalArgumentException("Input series are not aligned: pv=" + pv.length() + ", load=" + steps
+                    + ", purchase=" + purchasePrice.length + ", feedIn=" + feedInPrice.length);
+        }
+        this.pv = pv;
+        this.pvPerKWp = Arrays.copyOf(pv.toArray(), steps);
+        this.load = load;
+        this.purchasePrice = purchasePrice;
+        this.feedInPrice = feedInPrice;
+        this.intervalMinutes = pv.getIntervalMinutes();
+    }
+
+    public int steps() {
+        return load.length;
+    }
+
+    public double stepHours() {
+        return intervalMinutes / 60.0;
+    }
+
+    public int getIntervalMinutes() {
+        return intervalMinutes;
+    }
+
+    public ProductionProfile getPv() {
+        return pv;
+    }
+
+    public double pvPerKWp(int step) {
+        return pvPerKWp[step];
+    }
+
+    public double load(int step) {
+        return load[step];
+    }
+
+    public double purchasePrice(int step) {
+        return purchasePrice[step];
+    }
+
+    public double feedInPrice(int step) {
+        return feedInPrice[step];
+    }
+
+    // Direct access to the shared arrays for tight loops, callers must not modify them
+    double[] pvPerKWpArray() {
+        return pvPerKWp;
+    }
+
+    double[] loadArray() {
+        return load;
+    }
+
+    double[] purchasePriceArray() {
+        return purchasePrice;
+    }
+
+    double[] feedInPriceArray() {
+        return feedInPrice;
+    }
+}
@@ -0,0 +1,261 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Global sensitivity analysis of the net savings of one configuration (Sobol indices).
+ * Uses the Saltelli scheme: two random sample matrices A and B over the parameter ranges plus one
+ * matrix per parameter with that column taken from B, n * (k + 2) evaluations for k parameters.
+ * First-order indices use the Saltelli (2010) estimator on centred outputs, total indices the Jansen estimator;
+ * confidence intervals come from bootstrapping the sample rows.
+ *
+ * Samples do not run a full simulation each. Prices only scale the cost of the grid flows, so the
+ * configuration is simulated once per battery capacity level between 0 and its nominal size, and
+ * the import cost and feed-in revenue of these runs are kept. A sample takes the average capacity of
+ * the lifetime fade from {@link HeadlessEvaluator#averageCapacityShare} for its degradation rate,
+ * interpolates between the capacity levels there and applies its price levels and investment costs,
+ * O(lifetime) per sample. Tens of thousands of samples therefore cost about as much as the
+ * CAPACITY_LEVELS simulations, and the mean matches the kernel up to the interpolation.
+ * Only the self-consumption strategy dispatches independently of the prices and can be analysed.
+ */
+public class SobolAnalysis {
+
+    private static final int CAPACITY_LEVELS = 33;
+
+    private final HeadlessEvaluator evaluator;
+    private final Configuration config;
+    private final ForkJoinPool pool;
+    private final Map<SensitivityParameter, double[]> ranges = new EnumMap<>(SensitivityParameter.class);
+    private int bootstrapReplicates = 500;
+
+    // Per capacity level (index l = share l / (CAPACITY_LEVELS - 1) of the nominal capacity), filled on first run
+    private double[] importCost;    // Σ import * purchase price [€/year]
+    private double[] exportRevenue; // Σ export * feed-in price [€/year]
+    private double nominalCycles;   // Throughput per capacity of the new battery [1/year]
+
+    public SobolAnalysis(HeadlessEvaluator evaluator, Configuration config) {
+        this(evaluator, config, ForkJoinPool.commonPool());
+    }
+
+    public SobolAnalysis(HeadlessEvaluator evaluator, Configuration config, ForkJoinPool pool) {
+        if (config.getStrategy() != TradingStrategy.SELF_CONSUMPTION) {
+            throw new IllegalArgumentException("Grid flows depend on the prices for strategy " + config.getStrategy());
+        }
+        this.evaluator = evaluator;
+        this.config = config;
+        this.pool = pool;
+
+        // Default: ±25 % around the assumptions of the evaluator
+        CostParameters costs = evaluator.getCosts();
+        setRange(SensitivityParameter.MODULE_PRICE, 0.75 * costs.getPricePerModule(), 1.25 * costs.getPricePerModule());
+        setRange(SensitivityParameter.BATTERY_PRICE, 0.75 * costs.getBatteryPricePerKWh(), 1.25 * costs.getBatteryPricePerKWh());
+        setRange(SensitivityParameter.DEGRADATION, 0.75 * evaluator.getDegradationPerCycle(), 1.25 * evaluator.getDegradationPerCycle());
+        setRange(SensitivityParameter.FEED_IN_LEVEL, 0.75, 1.25);
+        setRange(SensitivityParameter.PURCHASE_LEVEL, 0.75, 1.25);
+    }
+
+    /**
+     * Uniform range of a parameter. min == max fixes the parameter, its indices become 0.
+     */
+    public SobolAnalysis setRange(SensitivityParameter parameter, double min, double max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Empty range for " + parameter + ": " + min + " > " + max);
+        }
+        ranges.put(parameter, new double[]{min, max});
+        return this;
+    }
+
+    /**
+     * Bootstrap replicates for the confidence intervals, 500 by default.
+     */
+    public SobolAnalysis setBootstrapReplicates(int bootstrapReplicates) {
+        this.bootstrapReplicates = bootstrapReplicates;
+        return this;
+    }
+
+    /**
+     * Evaluates n * (k + 2) samples in parallel and estimates the indices of all parameters.
+     */
+    public SobolIndices run(int n, long seed) throws InterruptedException, ExecutionException {
+        if (importCost == null) {
+            simulateCapacityLevels();
+        }
+        SensitivityParameter[] parameters = SensitivityParameter.values();
+        int k = parameters.length;
+
+        // Saltelli matrices in the unit cube: A, B and AB_i (A with column i from B)
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] a = new double[n][k];
+        double[][] b = new double[n][k];
+        for (int r = 0; r < n; r++) {
+            for (int i = 0; i < k; i++) {
+                a[r][i] = random.nextDouble();
+                b[r][i] = random.nextDouble();
+            }
+        }
+        double[] fA = new double[n];
+        double[] fB = new double[n];
+        double[][] fAB = new double[k][n];
+
+        int workers = Math.max(1, Math.min(pool.getParallelism(), n));
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            int from = w * n / workers;
+            int to = (w + 1) * n / workers;
+            futures.add(pool.submit(() -> evaluateRows(a, b, from, to, fA, fB, fAB)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        int[] all = new int[n];
+        for (int r = 0; r < n; r++) {
+            all[r] = r;
+        }
+        double[] first = new double[k];
+        double[] total = new double[k];
+        double[] moments = estimate(fA, fB, fAB, all, first, total);
+
+        // Percentile bootstrap over the rows
+        double[][] firstSamples = new double[k][bootstrapReplicates];
+        double[][] totalSamples = new double[k][bootstrapReplicates];
+        double[] f = new double[k];
+        double[] t = new double[k];
+        int[] rows = new int[n];
+        for (int rep = 0; rep < bootstrapReplicates; rep++) {
+            for (int r = 0; r < n; r++) {
+                rows[r] = random.nextInt(n);
+            }
+            estimate(fA, fB, fAB, rows, f, t);
+            for (int i = 0; i < k; i++) {
+                firstSamples[i][rep] = f[i];
+                totalSamples[i][rep] = t[i];
+            }
+        }
+        double[][] firstInterval = new double[k][];
+        double[][] totalInterval = new double[k][];
+        for (int i = 0; i < k; i++) {
+            firstInterval[i] = interval(firstSamples[i]);
+            totalInterval[i] = interval(totalSamples[i]);
+        }
+        return new SobolIndices(Arrays.asList(parameters), first, firstInterval, total, totalInterval,
+                moments[0], moments[1], (long) n * (k + 2));
+    }
+
+    private void evaluateRows(double[][] a, double[][] b, int from, int to, double[] fA, double[] fB, double[][] fAB) {
+        int k = a[0].length;
+        double[] mixed = new double[k];
+        for (int r = from; r < to; r++) {
+            fA[r] = netSavings(a[r]);
+            fB[r] = netSavings(b[r]);
+            for (int i = 0; i < k; i++) {
+                System.arraycopy(a[r], 0, mixed, 0, k);
+                mixed[i] = b[r][i];
+                fAB[i][r] = netSavings(mixed);
+            }
+        }
+    }
+
+    // Writes the indices for the given rows, returns {mean, variance} of the outputs
+    private static double[] estimate(double[] fA, double[] fB, double[][] fAB, int[] rows, double[] first, double[] total) {
+        int n = rows.length;
+        double mean = 0;
+        for (int r : rows) {
+            mean += (fA[r] + fB[r]) / (2.0 * n);
+        }
+        double variance = 0;
+        for (int r : rows) {
+            variance += ((fA[r] - mean) * (fA[r] - mean) + (fB[r] - mean) * (fB[r] - mean)) / (2.0 * n - 1);
+        }
+        for (int i = 0; i < first.length; i++) {
+            double[] mixed = fAB[i];
+            double firstSum = 0;
+            double totalSum = 0;
+            for (int r : rows) {
+                // Centred f(B): same expectation, far less variance when the mean is large against the spread
+                firstSum += (fB[r] - mean) * (mixed[r] - fA[r]);
+                totalSum += (fA[r] - mixed[r]) * (fA[r] - mixed[r]);
+            }
+            first[i] = variance > 0 ? firstSum / n / variance : 0;
+            total[i] = variance > 0 ? 0.5 * totalSum / n / variance : 0;
+        }
+        return new double[]{mean, variance};
+    }
+
+    private static double[] interval(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int last = sorted.length - 1;
+        return new double[]{sorted[(int) Math.floor(0.025 * last)], sorted[(int) Math.ceil(0.975 * last)]};
+    }
+
+    // Net savings of one sample, u holds the parameters in the unit cube in the order of SensitivityParameter
+    private double netSavings(double[] u) {
+        double modulePrice = scale(SensitivityParameter.MODULE_PRICE, u);
+        double batteryPrice = scale(SensitivityParameter.BATTERY_PRICE, u);
+        double degradation = scale(SensitivityParameter.DEGRADATION, u);
+        double feedInLevel = scale(SensitivityParameter.FEED_IN_LEVEL, u);
+        double purchaseLevel = scale(SensitivityParameter.PURCHASE_LEVEL, u);
+
+        CostParameters base = evaluator.getCosts();
+        CostParameters costs = new CostParameters(modulePrice, batteryPrice, base.getFixedInstallation(),
+                base.getOperatingCostShare(), base.getLifetimeYears());
+        int years = costs.getLifetimeYears();
+
+        // Same lifetime fade as the kernel: cycles of the nominal year, then the year with the average capacity
+        int last = importCost.length - 1;
+        double share = HeadlessEvaluator.averageCapacityShare(degradation, nominalCycles, years);
+        double position = share * last;
+        int level = Math.min((int) position, Math.max(last - 1, 0));
+        double w = position - level;
+        double purchased = interpolate(importCost, level, w);
+        double sold = interpolate(exportRevenue, level, w);
+        double annualSavings = purchaseLevel * evaluator.getBaselineCost() - (purchaseLevel * purchased - feedInLevel * sold);
+        return costs.netSavings(annualSavings, costs.investment(config));
+    }
+
+    private static double interpolate(double[] values, int level, double w) {
+        return w > 0 ? values[level] + w * (values[level + 1] - values[level]) : values[level];
+    }
+
+    private double scale(SensitivityParameter parameter, double[] u) {
+        double[] range = ranges.get(parameter);
+        return range[0] + u[parameter.ordinal()] * (range[1] - range[0]);
+    }
+
+    // One simulation per capacity level; the charge power stays that of the nominal battery
+    private void simulateCapacityLevels() throws InterruptedException, ExecutionException {
+        double nominal = config.getBatteryKWh();
+        int levels = nominal > 0 ? CAPACITY_LEVELS : 1;
+        double[] purchase = evaluator.getInput().purchasePriceArray();
+        double[] feedIn = evaluator.getInput().feedInPriceArray();
+        double[] zero = new double[purchase.length];
+        // Exact capacities without fade; the input series are shared, not copied
+        HeadlessEvaluator unfaded = new HeadlessEvaluator(evaluator.getInput(), evaluator.getCosts(),
+                evaluator.getModuleKWp(), evaluator.getRoundTripEfficiency(), 0);
+
+        List<Future<GridFlows>> futures = new ArrayList<>(levels);
+        for (int l = 0; l < levels; l++) {
+            double capacity = levels > 1 ? nominal * l / (levels - 1) : nominal;
+            double cRate = capacity > 0 ? config.getCRate() * nominal / capacity : config.getCRate();
+            Configuration faded = new Configuration(config.getModuleCount(), capacity, cRate, TradingStrategy.SELF_CONSUMPTION);
+            futures.add(pool.submit(() -> unfaded.simulateFlows(faded)));
+        }
+        double[] imports = new double[levels];
+        double[] exports = new double[levels];
+        for (int l = 0; l < levels; l++) {
+            GridFlows flows = futures.get(l).get();
+            imports[l] = flows.energyCost(purchase, zero);
+            exports[l] = -flows.energyCost(zero, feedIn);
+        }
+        importCost = imports;
+        exportRevenue = exports;
+        nominalCycles = futures.get(levels - 1).get().getBatteryCycles();
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.List;
+
+/**
+ * First-order and total Sobol indices of the net savings with bootstrap confidence intervals.
+ * The first-order index is the share of the variance explained by a parameter alone, the total
+ * index additionally includes all its interactions; a total index near zero means the parameter
+ * can be fixed at any value of its range.
+ */
+public final class SobolIndices {
+
+    private final List<SensitivityParameter> parameters;
+    private final double[] firstOrder;
+    private final double[][] firstOrderInterval; // [parameter][low, high]
+    private final double[] total;
+    private final double[][] totalInterval;
+    private final double mean;
+    private final double variance;
+    private final long evaluations;
+
+    SobolIndices(List<SensitivityParameter> parameters, double[] firstOrder, double[][] firstOrderInterval,
+                 double[] total, double[][] totalInterval, double mean, double variance, long evaluations) {
+        this.parameters = List.copyOf(parameters);
+        this.firstOrder = firstOrder;
+        this.firstOrderInterval = firstOrderInterval;
+        this.total = total;
+        this.totalInterval = totalInterval;
+        this.mean = mean;
+        this.variance = variance;
+        this.evaluations = evaluations;
+    }
+
+    public List<SensitivityParameter> getParameters() {
+        return parameters;
+    }
+
+    public double getFirstOrder(SensitivityParameter parameter) {
+        return firstOrder[index(parameter)];
+    }
+
+    // 95 % bootstrap interval {low, high}
+    public double[] getFirstOrderInterval(SensitivityParameter parameter) {
+        return firstOrderInterval[index(parameter)].clone();
+    }
+
+    public double getTotal(SensitivityParameter parameter) {
+        return total[index(parameter)];
+    }
+
+    public double[] getTotalInterval(SensitivityParameter parameter) {
+        return totalInterval[index(parameter)].clone();
+    }
+
+    // Mean net savings over the sampled input ranges [€]
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    private int index(SensitivityParameter parameter) {
+        int i = parameters.indexOf(parameter);
+        if (i < 0) {
+            throw new IllegalArgumentException("Parameter " + parameter + " was not analysed");
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Sobol indices (n=%d, mean=%.2f, sd=%.2f)%n",
+                evaluations, mean, Math.sqrt(variance)));
+        for (int i = 0; i < parameters.size(); i++) {
+            sb.append(String.format("  %-15s first %.3f [%.3f, %.3f]  total %.3f [%.3f, %.3f]%n", parameters.get(i),
+                    firstOrder[i], firstOrderInterval[i][0], firstOrderInterval[i][1],
+                    total[i], totalInterval[i][0], totalInterval[i][1]));
+        }
+        return sb.toString();
+    }
+}
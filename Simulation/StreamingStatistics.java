@@ -0,0 +1,233 @@
+import java.util.Arrays;
+
+/**
+ * Constant-memory summary of a stream of values: count, mean and variance (Welford) and
+ * quantile estimates by the P² algorithm (Jain and Chlamtac, 1985), five markers per quantile.
+ * Not thread-safe; parallel producers keep one instance each and {@link #merge} them afterwards.
+ */
+public final class StreamingStatistics {
+
+    private final double[] probabilities;
+    private final double[][] heights;   // Marker heights per quantile
+    private final double[][] positions; // Actual marker positions (1-based)
+    private final double[][] desired;   // Desired marker positions
+
+    private long count;
+    private double mean;
+    private double m2;                  // Sum of squared deviations from the mean
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final double[] firstValues = new double[5]; // Raw values until the markers are initialised
+
+    public StreamingStatistics(double... probabilities) {
+        for (double p : probabilities) {
+            if (p <= 0 || p >= 1) {
+                throw new IllegalArgumentException("Quantile probabilities must lie within (0, 1): " + p);
+            }
+        }
+        this.probabilities = probabilities.clone();
+        this.heights = new double[probabilities.length][5];
+        this.positions = new double[probabilities.length][5];
+        this.desired = new double[probabilities.length][5];
+        for (int q = 0; q < probabilities.length; q++) {
+            double p = probabilities[q];
+            for (int i = 0; i < 5; i++) {
+                positions[q][i] = i + 1;
+            }
+            desired[q] = new double[]{1, 1 + 2 * p, 1 + 4 * p, 3 + 2 * p, 5};
+        }
+    }
+
+    public void add(double value) {
+        if (count < 5) {
+            firstValues[(int) count] = value;
+        }
+        count++;
+        double d = value - mean;
+        mean += d / count;
+        m2 += d * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        for (int q = 0; q < probabilities.length; q++) {
+            addToQuantile(q, value);
+        }
+    }
+
+    private void addToQuantile(int q, double value) {
+        double[] h = heights[q];
+        double[] n = positions[q];
+        double[] np = desired[q];
+        double p = probabilities[q];
+
+        // The first five values initialise the markers
+        if (count <= 5) {
+            h[(int) count - 1] = value;
+            if (count == 5) {
+                Arrays.sort(h);
+            }
+            return;
+        }
+
+        int k;
+        if (value < h[0]) {
+            h[0] = value;
+            k = 0;
+        } else if (value >= h[4]) {
+            h[4] = Math.max(h[4], value);
+            k = 3;
+        } else {
+            k = 0;
+            while (value >= h[k + 1]) {
+                k++;
+            }
+        }
+        for (int i = k + 1; i < 5; i++) {
+            n[i]++;
+        }
+        np[1] += p / 2;
+        np[2] += p;
+        np[3] += (1 + p) / 2;
+        np[4] += 1;
+
+        // Move the three middle markers towards their desired positions (parabolic, else linear)
+        for (int i = 1; i <= 3; i++) {
+            double offset = np[i] - n[i];
+            if ((offset >= 1 && n[i + 1] - n[i] > 1) || (offset <= -1 && n[i - 1] - n[i] < -1)) {
+                int s = offset >= 0 ? 1 : -1;
+                double parabolic = h[i] + s / (n[i + 1] - n[i - 1])
+                        * ((n[i] - n[i - 1] + s) * (h[i + 1] - h[i]) / (n[i + 1] - n[i])
+                        + (n[i + 1] - n[i] - s) * (h[i] - h[i - 1]) / (n[i] - n[i - 1]));
+                if (h[i - 1] < parabolic && parabolic < h[i + 1]) {
+                    h[i] = parabolic;
+                } else {
+                    h[i] = h[i] + s * (h[i + s] - h[i]) / (n[i + s] - n[i]);
+                }
+                n[i] += s;
+            }
+        }
+    }
+
+    /**
+     * Combines the summary of another stream into this one. Count, mean, variance, min and max are
+     * exact (Chan et al.); quantiles become the count-weighted average of both estimates. A stream
+     * with fewer than five values has no markers yet, its raw values are added one by one instead.
+     */
+    public void merge(StreamingStatistics other) {
+        if (!Arrays.equals(probabilities, other.probabilities)) {
+            throw new IllegalArgumentException("Quantile probabilities differ");
+        }
+        if (other.count < 5) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.firstValues[i]);
+            }
+            return;
+        }
+        if (count < 5) {
+            double[] own = Arrays.copyOf(firstValues, (int) count);
+            copyFrom(other);
+            for (double value : own) {
+                add(value);
+            }
+            return;
+        }
+        double w = (double) other.count / (count + other.count);
+        for (int q = 0; q < probabilities.length; q++) {
+            for (int i = 0; i < 5; i++) {
+                heights[q][i] = (1 - w) * heights[q][i] + w * other.heights[q][i];
+                positions[q][i] += other.positions[q][i];
+                desired[q][i] += other.desired[q][i];
+            }
+            positions[q][0] = 1;
+            desired[q][0] = 1;
+        }
+        long total = count + other.count;
+        double d = other.mean - mean;
+        m2 += other.m2 + d * d * count * other.count / total;
+        mean += d * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private void copyFrom(StreamingStatistics other) {
+        for (int q = 0; q < probabilities.length; q++) {
+            System.arraycopy(other.heights[q], 0, heights[q], 0, 5);
+            System.arraycopy(other.positions[q], 0, positions[q], 0, 5);
+            System.arraycopy(other.desired[q], 0, desired[q], 0, 5);
+        }
+        System.arraycopy(other.firstValues, 0, firstValues, 0, 5);
+        count = other.count;
+        mean = other.mean;
+        m2 = other.m2;
+        min = other.min;
+        max = other.max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    // Sample variance
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Estimate of the quantile with the given probability, which must be one of the constructor arguments.
+     */
+    public double getQuantile(double probability) {
+        for (int q = 0; q < probabilities.length; q++) {
+            if (probabilities[q] == probability) {
+                return quantile(q);
+            }
+        }
+        throw new IllegalArgumentException("Quantile " + probability + " is not tracked");
+    }
+
+    private double quantile(int q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            // Exact quantile of the few stored values
+            double[] values = Arrays.copyOf(heights[q], (int) count);
+            Arrays.sort(values);
+            return values[(int) Math.min(count - 1, Math.round(probabilities[q] * (count - 1)))];
+        }
+        return heights[q][2];
+    }
+
+    public double[] getProbabilities() {
+        return probabilities.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("n=%d, mean=%.2f, sd=%.2f", count, getMean(), getStandardDeviation()));
+        for (int q = 0; q < probabilities.length; q++) {
+            sb.append(String.format(", p%s=%.2f", trim(probabilities[q] * 100), quantile(q)));
+        }
+        return sb.toString();
+    }
+
+    private static String trim(double percent) {
+        return percent == Math.rint(percent) ? String.valueOf((long) percent) : String.valueOf(percent);
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Regression check for {@link StreamingStatistics#merge} with partial streams of fewer than five
+ * values, as produced by {@link MonteCarloEngine} when there are few scenarios per worker.
+ * Run with {@code java StreamingStatisticsCheck}; exits with status 1 on failure.
+ */
+public final class StreamingStatisticsCheck {
+
+    private StreamingStatisticsCheck() {
+    }
+
+    public static void main(String[] args) {
+        boolean ok = check(new double[]{10, 20, 30}, new double[]{1, 2, 3}, 15.0)
+                & check(new double[]{9, 8, 7, 6}, new double[]{5, 4, 3, 2}, 5.5)
+                & check(new double[]{1, 2, 3, 4, 5, 6}, new double[]{7, 8}, 4.5)
+                & check(new double[]{7}, new double[]{1, 2, 3, 4, 5, 6, 8}, 4.5);
+        System.out.println(ok ? "StreamingStatistics merge OK" : "StreamingStatistics merge FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // Merged median must equal the median of the same values added to one stream and lie near the exact median
+    private static boolean check(double[] first, double[] second, double exactMedian) {
+        StreamingStatistics a = new StreamingStatistics(0.5);
+        StreamingStatistics b = new StreamingStatistics(0.5);
+        StreamingStatistics sequential = new StreamingStatistics(0.5);
+        for (double v : first) {
+            a.add(v);
+        }
+        for (double v : second) {
+            b.add(v);
+        }
+        // merge replays the values of the stream without markers after those of the other one
+        boolean secondFirst = first.length < 5 && second.length >= 5;
+        for (double v : secondFirst ? second : first) {
+            sequential.add(v);
+        }
+        for (double v : secondFirst ? first : second) {
+            sequential.add(v);
+        }
+        a.merge(b);
+        double median = a.getQuantile(0.5);
+        double spread = sequential.getMax() - sequential.getMin();
+        boolean ok = median == sequential.getQuantile(0.5) && Math.abs(median - exactMedian) <= 0.25 * spread
+                && a.getCount() == sequential.getCount() && Math.abs(a.getMean() - sequential.getMean()) < 1e-9;
+        if (!ok) {
+            System.out.println("merge of " + first.length + " and " + second.length + " values: median " + median
+                    + ", sequential " + sequential.getQuantile(0.5) + ", exact " + exactMedian);
+        }
+        return ok;
+    }
+}
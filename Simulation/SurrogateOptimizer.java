@@ -0,0 +1,376 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Bayesian optimization with a {@link GaussianProcess} surrogate over the grid coordinates.
+ * After a Latin hypercube start design, each batch fits the surrogate to all simulated points and
+ * simulates the candidates with the highest expected improvement; candidates close to an already
+ * chosen one are penalised so a batch spreads out. The search ends when no candidate is expected
+ * to improve noticeably. Pays off when a simulation is expensive (e.g. a Monte Carlo metric), as
+ * the surrogate itself costs O(n^3) per batch in the number of simulated points n.
+ *
+ * The kernel hyperparameters (length scales, signal and noise variance) are chosen by marginal
+ * likelihood. A small uniformly random hold-out set is simulated along with the start design but
+ * never used for fitting; {@link #getReport()} compares the final surrogate with it and tells how
+ * far the surrogate can be trusted across the grid, not just at the points expected improvement picked.
+ */
+public class SurrogateOptimizer implements OptimizationStrategy {
+
+    private static final double[] LENGTH_SCALES = {0.05, 0.1, 0.2, 0.4, 0.8, 1.6};
+    private static final double[] SIGNAL_VARIANCES = {0.25, 0.5, 1, 2, 4, 8};
+    private static final double[] NOISE_VARIANCES = {1e-6, 1e-4, 1e-3, 1e-2, 1e-1};
+    private static final int REFIT_INTERVAL = 5;            // Batches between hyperparameter searches
+    private static final int MAX_REFIT_POINTS = 200;        // Most recent points used for the search
+    private static final double MIN_IMPROVEMENT = 1e-4;     // Expected improvement in target standard deviations
+
+    private final int batchSize;
+    private final long seed;
+    private int candidatePool = 5000;
+    private int holdout = -1;
+    private SurrogateReport report;
+
+    public SurrogateOptimizer(int batchSize, long seed) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        this.seed = seed;
+    }
+
+    public SurrogateOptimizer(long seed) {
+        this(Math.max(4, Runtime.getRuntime().availableProcessors()), seed);
+    }
+
+    /**
+     * Candidates scored per batch, 5000 by default. Smaller grids are scored completely, larger ones
+     * by a random sample plus the neighbours of the best point.
+     */
+    public SurrogateOptimizer setCandidatePool(int candidatePool) {
+        this.candidatePool = candidatePool;
+        return this;
+    }
+
+    /**
+     * Randomly chosen grid points simulated only to score the surrogate. By default a tenth of
+     * maxSimulations, at least 10 and at most 50. Hold-out and start design count against maxSimulations;
+     * when both do not fit, the hold-out gets what the start design leaves.
+     */
+    public SurrogateOptimizer setHoldout(int holdout) {
+        if (holdout < 0) {
+            throw new IllegalArgumentException("holdout must not be negative");
+        }
+        this.holdout = holdout;
+        return this;
+    }
+
+    /**
+     * Accuracy of the surrogate in the last {@link #optimize} run, null before the first run.
+     */
+    public SurrogateReport getReport() {
+        return report;
+    }
+
+    @Override
+    public EvaluationResult optimize(MemoizedEvaluator evaluator, int maxSimulations) {
+        Random random = new Random(seed);
+        int[] shape = evaluator.getGrid().shape();
+        long size = evaluator.getGrid().size();
+        int limit = evaluator.getSimulationCount() + maxSimulations;
+
+        List<int[]> points = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        Set<Long> known = new HashSet<>();
+        EvaluationResult best = null;
+        int[] bestPoint = null;
+
+        // Start design and hold-out stay within maxSimulations, the hold-out shrinks first
+        int designSize = (int) Math.min(size, Math.max(2 * shape.length + 2, batchSize));
+        List<int[]> design = latinHypercube(shape, Math.max(1, Math.min(designSize, maxSimulations)), random);
+        for (int[] c : design) {
+            known.add(key(c, shape));
+        }
+        int holdoutSize = holdout >= 0 ? holdout : Math.min(50, Math.max(10, maxSimulations / 10));
+        holdoutSize = Math.max(0, Math.min(holdoutSize, maxSimulations - design.size()));
+        List<int[]> validation = randomUnknown(shape, size, known, (int) Math.min(holdoutSize, size - known.size()), random);
+        for (int[] c : validation) {
+            known.add(key(c, shape));
+        }
+
+        List<int[]> start = new ArrayList<>(design);
+        start.addAll(validation);
+        List<EvaluationResult> results = evaluator.evaluateAll(start);
+        double[] validationActual = new double[validation.size()];
+        Set<Long> trained = new HashSet<>();
+        for (int i = 0; i < start.size(); i++) {
+            if (i >= design.size()) {
+                validationActual[i - design.size()] = results.get(i).getNetSavings();
+            } else if (trained.add(key(start.get(i), shape))) {
+                points.add(start.get(i));
+                values.add(results.get(i).getNetSavings());
+            }
+            if (best == null || results.get(i).getNetSavings() > best.getNetSavings()) {
+                best = results.get(i);
+                bestPoint = start.get(i);
+            }
+        }
+
+        double[] hyper = new double[shape.length + 2]; // Length scales, signal variance, noise variance
+        Arrays.fill(hyper, 0.4);
+        hyper[shape.length] = 1;
+        hyper[shape.length + 1] = 1e-4;
+        double[] prediction = new double[2];
+        for (int batch = 0; evaluator.getSimulationCount() < limit && known.size() < size; batch++) {
+            if (batch % REFIT_INTERVAL == 0) {
+                hyper = fitHyperparameters(points, values, shape, hyper);
+            }
+            GaussianProcess gp = surrogate(normalise(points, shape), toArray(values), hyper);
+
+            List<int[]> pool = candidates(shape, size, known, bestPoint, random);
+            double[][] x = normalise(pool, shape);
+            double[] score = new double[pool.size()];
+            for (int i = 0; i < pool.size(); i++) {
+                gp.predict(x[i], prediction);
+                score[i] = expectedImprovement(prediction[0], prediction[1], best.getNetSavings());
+            }
+
+            // The last batch only takes what is left of the budget
+            int room = Math.min(batchSize, limit - evaluator.getSimulationCount());
+            List<int[]> chosen = new ArrayList<>(room);
+            while (chosen.size() < room) {
+                int top = -1;
+                for (int i = 0; i < score.length; i++) {
+                    if (top < 0 || score[i] > score[top]) {
+                        top = i;
+                    }
+                }
+                if (top < 0 || score[top] < MIN_IMPROVEMENT * gp.getScale()) {
+                    break;
+                }
+                chosen.add(pool.get(top));
+                // Local penalisation: points correlated with the chosen one add little information
+                for (int i = 0; i < score.length; i++) {
+                    score[i] *= 1 - gp.kernel(x[i], x[top]);
+                }
+                score[top] = Double.NEGATIVE_INFINITY;
+            }
+            if (chosen.isEmpty()) {
+                break; // Converged: nothing is expected to improve on the best point
+            }
+
+            results = evaluator.evaluateAll(chosen);
+            for (int i = 0; i < chosen.size(); i++) {
+                EvaluationResult result = results.get(i);
+                known.add(key(chosen.get(i), shape));
+                points.add(chosen.get(i));
+                values.add(result.getNetSavings());
+                if (result.getNetSavings() > best.getNetSavings()) {
+                    best = result;
+                    bestPoint = chosen.get(i);
+                }
+            }
+        }
+
+        // Score the final surrogate on the hold-out points, which no fit has seen
+        hyper = fitHyperparameters(points, values, shape, hyper);
+        GaussianProcess gp = surrogate(normalise(points, shape), toArray(values), hyper);
+        double[][] x = normalise(validation, shape);
+        double[] predicted = new double[x.length];
+        double[] predictedSd = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            gp.predict(x[i], prediction);
+            predicted[i] = prediction[0];
+            predictedSd[i] = prediction[1];
+        }
+        report = new SurrogateReport(predicted, predictedSd, validationActual, x.length, points.size() + x.length, size);
+        return best;
+    }
+
+    // Expected improvement over the incumbent for a normal prediction (maximisation)
+    private static double expectedImprovement(double mean, double sd, double incumbent) {
+        double improvement = mean - incumbent;
+        if (sd < 1e-12) {
+            return Math.max(improvement, 0);
+        }
+        double z = improvement / sd;
+        return improvement * normalCdf(z) + sd * Math.exp(-0.5 * z * z) / Math.sqrt(2 * Math.PI);
+    }
+
+    // Standard normal distribution function, erfc approximation with relative error below 1.2e-7
+    private static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.5 * x);
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return z >= 0 ? 1 - 0.5 * erfc : 0.5 * erfc;
+    }
+
+    // Hyperparameters are the length scales per axis followed by signal and noise variance
+    private static GaussianProcess surrogate(double[][] x, double[] y, double[] hyper) {
+        int axes = hyper.length - 2;
+        return new GaussianProcess(x, y, Arrays.copyOf(hyper, axes), hyper[axes], hyper[axes + 1]);
+    }
+
+    // Coordinate-wise search for the hyperparameters with the highest marginal likelihood
+    private static double[] fitHyperparameters(List<int[]> points, List<Double> values, int[] shape, double[] start) {
+        int from = Math.max(0, points.size() - MAX_REFIT_POINTS);
+        double[][] x = normalise(points.subList(from, points.size()), shape);
+        double[] y = toArray(values.subList(from, values.size()));
+
+        double[] hyper = start.clone();
+        double bestLikelihood = surrogate(x, y, hyper).getLogLikelihood();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < hyper.length; i++) {
+                if (i < shape.length && shape[i] <= 1) {
+                    continue;
+                }
+                double[] grid = i < shape.length ? LENGTH_SCALES : i == shape.length ? SIGNAL_VARIANCES : NOISE_VARIANCES;
+                double current = hyper[i];
+                for (double candidate : grid) {
+                    if (candidate == current) {
+                        continue;
+                    }
+                    hyper[i] = candidate;
+                    double likelihood = surrogate(x, y, hyper).getLogLikelihood();
+                    if (likelihood > bestLikelihood) {
+                        bestLikelihood = likelihood;
+                        current = candidate;
+                    }
+                }
+                hyper[i] = current;
+            }
+        }
+        return hyper;
+    }
+
+    // n distinct unknown grid points drawn uniformly, n must not exceed the unknown points
+    private static List<int[]> randomUnknown(int[] shape, long size, Set<Long> known, int n, Random random) {
+        List<int[]> picked = new ArrayList<>(n);
+        if (size - known.size() <= 4L * n) {
+            int[] c = new int[shape.length];
+            for (long i = 0; i < size; i++) {
+                if (!known.contains(key(c, shape))) {
+                    picked.add(c.clone());
+                }
+                increment(c, shape);
+            }
+            Collections.shuffle(picked, random);
+            return new ArrayList<>(picked.subList(0, n));
+        }
+        Set<Long> added = new HashSet<>();
+        while (picked.size() < n) {
+            int[] c = new int[shape.length];
+            for (int axis = 0; axis < shape.length; axis++) {
+                c[axis] = random.nextInt(shape[axis]);
+            }
+            long key = key(c, shape);
+            if (!known.contains(key) && added.add(key)) {
+                picked.add(c);
+            }
+        }
+        return picked;
+    }
+
+    // All unknown grid points, or a random sample of them plus the neighbours of the best point
+    private List<int[]> candidates(int[] shape, long size, Set<Long> known, int[] bestPoint, Random random) {
+        List<int[]> pool = new ArrayList<>();
+        if (size - known.size() <= candidatePool) {
+            int[] c = new int[shape.length];
+            for (long i = 0; i < size; i++) {
+                if (!known.contains(key(c, shape))) {
+                    pool.add(c.clone());
+                }
+                increment(c, shape);
+            }
+            return pool;
+        }
+        Set<Long> added = new HashSet<>();
+        for (int axis = 0; axis < shape.length; axis++) {
+            for (int step = -1; step <= 1; step += 2) {
+                int[] c = bestPoint.clone();
+                c[axis] += step;
+                if (c[axis] >= 0 && c[axis] < shape[axis] && !known.contains(key(c, shape)) && added.add(key(c, shape))) {
+                    pool.add(c);
+                }
+            }
+        }
+        // More unknown points than the pool holds, so this terminates
+        while (pool.size() < candidatePool) {
+            int[] c = new int[shape.length];
+            for (int axis = 0; axis < shape.length; axis++) {
+                c[axis] = random.nextInt(shape[axis]);
+            }
+            long key = key(c, shape);
+            if (!known.contains(key) && added.add(key)) {
+                pool.add(c);
+            }
+        }
+        return pool;
+    }
+
+    private static void increment(int[] c, int[] shape) {
+        for (int axis = 0; axis < shape.length; axis++) {
+            if (++c[axis] < shape[axis]) {
+                return;
+            }
+            c[axis] = 0;
+        }
+    }
+
+    // One point per stratum and axis, strata shuffled independently per axis
+    private static List<int[]> latinHypercube(int[] shape, int n, Random random) {
+        int[][] strata = new int[shape.length][n];
+        for (int axis = 0; axis < shape.length; axis++) {
+            for (int i = 0; i < n; i++) {
+                strata[axis][i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = strata[axis][i];
+                strata[axis][i] = strata[axis][j];
+                strata[axis][j] = t;
+            }
+        }
+        List<int[]> design = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int[] c = new int[shape.length];
+            for (int axis = 0; axis < shape.length; axis++) {
+                c[axis] = (int) ((strata[axis][i] + random.nextDouble()) * shape[axis] / n);
+            }
+            design.add(c);
+        }
+        return design;
+    }
+
+    private static long key(int[] c, int[] shape) {
+        long key = 0;
+        for (int axis = shape.length - 1; axis >= 0; axis--) {
+            key = key * shape[axis] + c[axis];
+        }
+        return key;
+    }
+
+    // Coordinates scaled to the unit cube, so one set of length scales fits every axis
+    private static double[][] normalise(List<int[]> points, int[] shape) {
+        double[][] x = new double[points.size()][shape.length];
+        for (int i = 0; i < points.size(); i++) {
+            for (int axis = 0; axis < shape.length; axis++) {
+                x[i][axis] = shape[axis] > 1 ? points.get(i)[axis] / (double) (shape[axis] - 1) : 0;
+            }
+        }
+        return x;
+    }
+
+    private static double[] toArray(List<Double> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Accuracy of a surrogate model, measured out of sample on randomly chosen hold-out points that
+ * were simulated but never used for fitting. Also records how many simulations the screening
+ * needed compared to the full grid.
+ */
+public final class SurrogateReport {
+
+    private final int predictions;
+    private final double rmse;
+    private final double meanAbsoluteError;
+    private final double rSquared;
+    private final double coverage95;  // Share of true values within mean +- 1.96 sd
+    private final int simulations;
+    private final long gridSize;
+
+    SurrogateReport(double[] predicted, double[] sd, double[] actual, int count, int simulations, long gridSize) {
+        double squares = 0;
+        double absolute = 0;
+        double mean = 0;
+        int covered = 0;
+        for (int i = 0; i < count; i++) {
+            double error = predicted[i] - actual[i];
+            squares += error * error;
+            absolute += Math.abs(error);
+            mean += actual[i] / count;
+            if (Math.abs(error) <= 1.96 * sd[i]) {
+                covered++;
+            }
+        }
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += (actual[i] - mean) * (actual[i] - mean);
+        }
+        this.predictions = count;
+        this.rmse = count > 0 ? Math.sqrt(squares / count) : Double.NaN;
+        this.meanAbsoluteError = count > 0 ? absolute / count : Double.NaN;
+        this.rSquared = total > 0 ? 1 - squares / total : Double.NaN;
+        this.coverage95 = count > 0 ? (double) covered / count : Double.NaN;
+        this.simulations = simulations;
+        this.gridSize = gridSize;
+    }
+
+    public int getPredictions() {
+        return predictions;
+    }
+
+    public double getRmse() {
+        return rmse;
+    }
+
+    public double getMeanAbsoluteError() {
+        return meanAbsoluteError;
+    }
+
+    // Out-of-sample coefficient of determination, 1 is a perfect surrogate
+    public double getRSquared() {
+        return rSquared;
+    }
+
+    public double getCoverage95() {
+        return coverage95;
+    }
+
+    public int getSimulations() {
+        return simulations;
+    }
+
+    // Full grid size divided by the simulations used
+    public double getReduction() {
+        return simulations > 0 ? (double) gridSize / simulations : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("surrogate predictions=%d, rmse=%.2f, mae=%.2f, r2=%.3f, coverage95=%.0f %%, "
+                        + "simulations=%d of %d (%.1fx fewer)",
+                predictions, rmse, meanAbsoluteError, rSquared, coverage95 * 100, simulations, gridSize, getReduction());
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+/**
+ * Full-factorial grid over the decision variables.
+ * Candidates are addressed by a single index (mixed radix), so the grid can be
+ * partitioned between workers without materialising all configurations.
+ */
+public final class SweepGrid {
+
+    private final int[] moduleCounts;
+    private final double[] batteryKWh;
+    private final double[] cRates;
+    private final TradingStrategy[] strategies;
+    private final double[] priceThresholds; // Variants of PRICE_THRESHOLD, ignored by the other strategies
+
+    private final int strategyVariants;
+
+    public SweepGrid(int[] moduleCounts, double[] batteryKWh, double[] cRates,
+                     TradingStrategy[] strategies, double[] priceThresholds) {
+        this.moduleCounts = moduleCounts.clone();
+        this.batteryKWh = batteryKWh.clone();
+        this.cRates = cRates.clone();
+        this.strategies = strategies.clone();
+        this.priceThresholds = priceThresholds.length > 0 ? priceThresholds.clone() : new double[]{0.0};
+
+        int variants = 0;
+        for (TradingStrategy strategy : strategies) {
+            variants += strategy == TradingStrategy.PRICE_THRESHOLD ? this.priceThresholds.length : 1;
+        }
+        this.strategyVariants = variants;
+    }
+
+    /**
+     * Module counts from 0 up to the number of modules that fit on the roof (see PV.pvCount).
+     */
+    public static int[] moduleCountsForRoof(double roofLength, double roofWidth,
+                                            double moduleLength, double moduleWidth, int step) {
+        return range(0, PV.pvCount(roofLength, roofWidth, moduleLength, moduleWidth), step);
+    }
+
+    public static int[] range(int from, int to, int step) {
+        int n = to < from ? 0 : (to - from) / step + 1;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = from + i * step;
+        }
+        return values;
+    }
+
+    public static double[] range(double from, double to, double step) {
+        int n = to < from ? 0 : (int) Math.floor((to - from) / step + 1e-9) + 1;
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = from + i * step;
+        }
+        return values;
+    }
+
+    public long size() {
+        return (long) moduleCounts.length * batteryKWh.length * cRates.length * strategyVariants;
+    }
+
+    /**
+     * Configuration with the given index, 0 &lt;= index &lt; size().
+     * Neighbouring indices differ in the module count first.
+     */
+    public Configuration get(long index) {
+        int module = (int) (index % moduleCounts.length);
+        index /= moduleCounts.length;
+        int battery = (int) (index % batteryKWh.length);
+        index /= batteryKWh.length;
+        int cRate = (int) (index % cRates.length);
+        int variant = (int) (index / cRates.length);
+        return get(module, battery, cRate, variant);
+    }
+
+    /**
+     * Configuration at the given grid coordinates, see {@link #shape()}.
+     */
+    public Configuration get(int[] coordinates) {
+        return get(coordinates[0], coordinates[1], coordinates[2], coordinates[3]);
+    }
+
+    private Configuration get(int module, int battery, int cRate, int variant) {
+        for (TradingStrategy strategy : strategies) {
+            if (strategy == TradingStrategy.PRICE_THRESHOLD) {
+                if (variant < priceThresholds.length) {
+                    return new Configuration(moduleCounts[module], batteryKWh[battery], cRates[cRate], strategy, priceThresholds[variant]);
+                }
+                variant -= priceThresholds.length;
+            } else {
+                if (variant == 0) {
+                    return new Configuration(moduleCounts[module], batteryKWh[battery], cRates[cRate], strategy);
+                }
+                variant--;
+            }
+        }
+        throw new IndexOutOfBoundsException("Index outside of the grid");
+    }
+
+    /**
+     * Number of values per axis: module counts, battery sizes, C-rates and strategy variants
+     * (each price threshold of PRICE_THRESHOLD is its own variant). Used by the optimizers,
+     * which move on these integer coordinates instead of enumerating the grid.
+     */
+    public int[] shape() {
+        return new int[]{moduleCounts.length, batteryKWh.length, cRates.length, strategyVariants};
+    }
+
+    /**
+     * Hash of all axis values. Stable across JVMs, identifies the grid in checkpoints and work queues.
+     */
+    long fingerprint() {
+        long hash = size();
+        hash = 31 * hash + Arrays.hashCode(moduleCounts);
+        hash = 31 * hash + Arrays.hashCode(batteryKWh);
+        hash = 31 * hash + Arrays.hashCode(cRates);
+        hash = 31 * hash + Arrays.hashCode(priceThresholds);
+        for (TradingStrategy strategy : strategies) {
+            hash = 31 * hash + strategy.name().hashCode();
+        }
+        return hash;
+    }
+
+    public int[] getModuleCounts() {
+        return moduleCounts.clone();
+    }
+
+    public double[] getBatteryKWh() {
+        return batteryKWh.clone();
+    }
+
+    public double[] getCRates() {
+        return cRates.clone();
+    }
+}
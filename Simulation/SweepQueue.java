@@ -0,0 +1,203 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Work queue in an HSQLDB table that lets several JVMs share one sweep, e.g. worker processes
+ * connected to the same HSQLDB server. The grid is split into chunks, one row each. A worker leases
+ * the next free chunk with a conditional UPDATE, evaluates it with its own {@link ParameterSweep}
+ * and marks it done together with the best net savings found. Leases carry an expiry time on the
+ * database clock; chunks of dead workers become free again once it has passed.
+ *
+ * The table is also the checkpoint: restarted workers continue with the chunks that are not done,
+ * and the incumbent is the maximum over the finished chunks, so pruning works across processes.
+ * A lease must outlast the evaluation of a chunk, otherwise the chunk is evaluated twice.
+ * Results of chunks that were leased by a dead worker are delivered again (at-least-once).
+ */
+public class SweepQueue {
+
+    private static final long POLL_MILLIS = 1000;
+
+    private final Connection conn;
+    private final String table;
+
+    /**
+     * @param conn connection in auto-commit mode, one per worker
+     */
+    public SweepQueue(Connection conn, String table) {
+        this.conn = conn;
+        this.table = AnyLogicDBUtil.sanitizeTableName(table);
+    }
+
+    /**
+     * Creates the queue for the grid unless it already exists. Called once, by the process that
+     * starts the sweep; an existing queue keeps its chunks and progress.
+     *
+     * @throws IllegalStateException if an existing queue belongs to a different grid
+     */
+    public SweepQueue create(SweepGrid grid, int chunkSize, boolean replace) throws SQLException {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("chunk", "INTEGER PRIMARY KEY");
+        columns.put("grid", "BIGINT");
+        columns.put("range_from", "BIGINT");
+        columns.put("range_to", "BIGINT");
+        columns.put("owner", "VARCHAR(64)");
+        columns.put("lease_until", "BIGINT");
+        columns.put("done", "BOOLEAN");
+        columns.put("best", "DOUBLE");
+        columns.put("evaluated", "BIGINT");
+        AnyLogicDBUtil.createTable(conn, table, columns, replace);
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT grid FROM " + table + " WHERE chunk = 0")) {
+            if (rs.next()) {
+                checkGrid(rs.getLong(1), grid);
+                return this;
+            }
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO " + table
+                + " (chunk, grid, range_from, range_to, done) VALUES (?, ?, ?, ?, FALSE)")) {
+            int chunk = 0;
+            for (long from = 0; from < grid.size(); from += chunkSize) {
+                ps.setInt(1, chunk++);
+                ps.setLong(2, grid.fingerprint());
+                ps.setLong(3, from);
+                ps.setLong(4, Math.min(from + chunkSize, grid.size()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return this;
+    }
+
+    /**
+     * Leases and evaluates chunks until every chunk is done. While the remaining chunks are leased
+     * by other workers, waits for them to finish or for their leases to expire.
+     *
+     * @param workerId unique name of this worker, e.g. host and process id
+     * @param lease    time a chunk stays reserved for this worker
+     * @return number of results this worker passed to the sink
+     */
+    public long work(ParameterSweep sweep, SweepGrid grid, ResultSink sink, String workerId, Duration lease)
+            throws SQLException, InterruptedException {
+        checkGrid(gridOfQueue(), grid);
+        long evaluated = 0;
+        while (true) {
+            long[] chunk = lease(workerId, lease.toMillis());
+            if (chunk == null) {
+                if (getRemaining() == 0) {
+                    return evaluated;
+                }
+                Thread.sleep(POLL_MILLIS);
+                continue;
+            }
+            // Start from the best result of all workers so far
+            DoubleAccumulator incumbent = new DoubleAccumulator(Math::max, getIncumbent());
+            long count = sweep.run(grid, chunk[1], chunk[2], sink, incumbent);
+            evaluated += count;
+            complete((int) chunk[0], workerId, incumbent.get(), count);
+        }
+    }
+
+    // Chunk index, first and end candidate of the leased chunk, null if none is free
+    private long[] lease(String workerId, long leaseMillis) throws SQLException {
+        String free = " NOT done AND (owner IS NULL OR lease_until < UNIX_MILLIS())";
+        try (PreparedStatement select = conn.prepareStatement("SELECT chunk, range_from, range_to FROM " + table
+                + " WHERE" + free + " ORDER BY chunk LIMIT 1");
+             PreparedStatement update = conn.prepareStatement("UPDATE " + table
+                     + " SET owner = ?, lease_until = UNIX_MILLIS() + ? WHERE chunk = ? AND" + free)) {
+            while (true) {
+                long[] chunk;
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    chunk = new long[]{rs.getInt(1), rs.getLong(2), rs.getLong(3)};
+                }
+                update.setString(1, workerId);
+                update.setLong(2, leaseMillis);
+                update.setInt(3, (int) chunk[0]);
+                if (update.executeUpdate() == 1) {
+                    return chunk;
+                }
+                // Leased by another worker in between, try the next free chunk
+            }
+        }
+    }
+
+    private void complete(int chunk, String workerId, double best, long evaluated) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE " + table
+                + " SET done = TRUE, owner = ?, best = ?, evaluated = ? WHERE chunk = ? AND NOT done")) {
+            ps.setString(1, workerId);
+            ps.setDouble(2, best);
+            ps.setLong(3, evaluated);
+            ps.setInt(4, chunk);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Best net savings over all finished chunks, negative infinity if none is finished.
+     */
+    public double getIncumbent() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(best) FROM " + table + " WHERE done")) {
+            rs.next();
+            double best = rs.getDouble(1);
+            return rs.wasNull() ? Double.NEGATIVE_INFINITY : best;
+        }
+    }
+
+    /**
+     * Number of chunks that are not done yet, leased or free.
+     */
+    public int getRemaining() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE NOT done")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Results delivered by all workers over the finished chunks.
+     */
+    public long getEvaluated() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(evaluated), 0) FROM " + table + " WHERE done")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private long gridOfQueue() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT grid FROM " + table + " WHERE chunk = 0")) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Queue " + table + " is empty, call create first");
+            }
+            return rs.getLong(1);
+        }
+    }
+
+    private void checkGrid(long fingerprint, SweepGrid grid) {
+        if (fingerprint != grid.fingerprint()) {
+            throw new IllegalStateException("Queue " + table + " belongs to a different grid");
+        }
+    }
+}
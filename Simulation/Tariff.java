@@ -0,0 +1,143 @@
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Electricity tariff of a household: purchase price (fixed, time-of-use or spot-based with
+ * surcharges and VAT), feed-in remuneration (fixed or spot-based, optionally nothing at negative
+ * spot prices), a feed-in cap and a monthly base fee.
+ * A tariff is only a description; {@link #compile} turns it into per-step price arrays for the
+ * simulation grid.
+ */
+public class Tariff {
+
+    private enum PurchaseModel {FIXED, TIME_OF_USE, SPOT}
+
+    private final PurchaseModel purchaseModel;
+    private final double fixedPrice;          // [€/kWh]
+    private final TimeOfUseTable timeOfUse;
+    private final double[] spotPrice;         // Exchange price per step of the simulation grid [€/kWh]
+    private final double surcharge;           // Grid fees, levies and taxes added to the spot price [€/kWh]
+    private final double vat;                 // Share added on top of spot price plus surcharge, e.g. 0.19
+
+    private double feedInPrice;               // Fixed feed-in remuneration [€/kWh]
+    private double spotFeedInFactor;          // Spot-based feed-in: spot * factor + premium, 0 = fixed tariff
+    private double spotFeedInPremium;
+    private boolean noFeedInAtNegativeSpot;
+    private double feedInCapKW = Double.POSITIVE_INFINITY; // Max. feed-in power [kW]
+    private double monthlyFee;                // Base fee [€/month]
+
+    private Tariff(PurchaseModel purchaseModel, double fixedPrice, TimeOfUseTable timeOfUse,
+                   double[] spotPrice, double surcharge, double vat) {
+        this.purchaseModel = purchaseModel;
+        this.fixedPrice = fixedPrice;
+        this.timeOfUse = timeOfUse;
+        this.spotPrice = spotPrice;
+        this.surcharge = surcharge;
+        this.vat = vat;
+    }
+
+    public static Tariff fixed(double price) {
+        return new Tariff(PurchaseModel.FIXED, price, null, null, 0, 0);
+    }
+
+    public static Tariff timeOfUse(TimeOfUseTable table) {
+        return new Tariff(PurchaseModel.TIME_OF_USE, 0, table, null, 0, 0);
+    }
+
+    /**
+     * Dynamic tariff: (spot + surcharge) * (1 + vat) per step.
+     */
+    public static Tariff spot(double[] spotPrice, double surcharge, double vat) {
+        return new Tariff(PurchaseModel.SPOT, 0, null, spotPrice.clone(), surcharge, vat);
+    }
+
+    public Tariff setFeedIn(double price) {
+        this.feedInPrice = price;
+        this.spotFeedInFactor = 0;
+        return this;
+    }
+
+    /**
+     * Feed-in paid at spot * factor + premium (direct marketing); needs a spot tariff.
+     */
+    public Tariff setSpotFeedIn(double factor, double premium) {
+        if (spotPrice == null) {
+            throw new IllegalStateException("Spot-based feed-in needs a spot price series");
+        }
+        this.spotFeedInFactor = factor;
+        this.spotFeedInPremium = premium;
+        return this;
+    }
+
+    /**
+     * No feed-in remuneration in steps with a negative spot price; needs a spot tariff.
+     */
+    public Tariff setNoFeedInAtNegativeSpot(boolean value) {
+        if (value && spotPrice == null) {
+            throw new IllegalStateException("Negative spot prices need a spot price series");
+        }
+        this.noFeedInAtNegativeSpot = value;
+        return this;
+    }
+
+    /**
+     * Limits the feed-in power, e.g. 0.6 * kWp; energy above the limit is curtailed.
+     */
+    public Tariff setFeedInCap(double kW) {
+        this.feedInCapKW = kW;
+        return this;
+    }
+
+    public Tariff setMonthlyFee(double fee) {
+        this.monthlyFee = fee;
+        return this;
+    }
+
+    /**
+     * Precomputes the tariff for a simulation grid starting at start with the given step length.
+     */
+    public CompiledTariff compile(LocalDateTime start, int intervalMinutes, int steps) {
+        if (spotPrice != null && spotPrice.length < steps) {
+            throw new IllegalArgumentException("Spot series has " + spotPrice.length + " values, " + steps + " needed");
+        }
+        double[] purchase = new double[steps];
+        double[] feedIn = new double[steps];
+        List<Integer> monthStarts = new ArrayList<>();
+        int lastMonth = -1;
+
+        for (int t = 0; t < steps; t++) {
+            LocalDateTime time = start.plusMinutes((long) t * intervalMinutes);
+            int month = time.getYear() * 12 + time.getMonthValue();
+            if (month != lastMonth) {
+                monthStarts.add(t);
+                lastMonth = month;
+            }
+
+            switch (purchaseModel) {
+                case TIME_OF_USE:
+                    DayOfWeek day = time.getDayOfWeek();
+                    purchase[t] = timeOfUse.price(time.getHour(), day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY);
+                    break;
+                case SPOT:
+                    purchase[t] = (spotPrice[t] + surcharge) * (1 + vat);
+                    break;
+                default:
+                    purchase[t] = fixedPrice;
+            }
+
+            double remuneration = spotFeedInFactor != 0 ? spotPrice[t] * spotFeedInFactor + spotFeedInPremium : feedInPrice;
+            if (noFeedInAtNegativeSpot && spotPrice[t] < 0) {
+                remuneration = 0;
+            }
+            feedIn[t] = remuneration;
+        }
+
+        int[] starts = new int[monthStarts.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = monthStarts.get(i);
+        }
+        return new CompiledTariff(purchase, feedIn, feedInCapKW * intervalMinutes / 60.0, starts, monthlyFee, intervalMinutes);
+    }
+}
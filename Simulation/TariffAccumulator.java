@@ -0,0 +1,110 @@
+/**
+ * Running cost account of one household under a {@link CompiledTariff}.
+ * Call {@link #step} once per simulation step with the step's load and grid flows; no allocation
+ * happens after construction, so the headless evaluator and the AnyLogic model can call it every
+ * step. Not thread-safe, use one accumulator per simulation run.
+ */
+public final class TariffAccumulator {
+
+    private final double[] purchasePrice;
+    private final double[] feedInPrice;
+    private final double feedInCap;
+    private final int[] monthStarts;
+    private final double monthlyFee;
+
+    private int nextMonth;          // Index of the next month start whose fee is not booked yet
+    private double importCost;      // [€]
+    private double exportRevenue;   // [€]
+    private double fees;            // [€]
+    private double baselineCost;    // Energy cost of the same load without PV and battery [€]
+    private double gridImport;      // [kWh]
+    private double gridExport;      // Remunerated feed-in [kWh]
+    private double curtailed;       // Feed-in above the cap [kWh]
+
+    TariffAccumulator(CompiledTariff tariff) {
+        this.purchasePrice = tariff.purchasePriceArray();
+        this.feedInPrice = tariff.feedInPriceArray();
+        this.feedInCap = tariff.getFeedInCap();
+        this.monthStarts = tariff.monthStartArray();
+        this.monthlyFee = tariff.getMonthlyFee();
+    }
+
+    /**
+     * Books one step [kWh]. Feed-in above the cap is curtailed and not paid.
+     *
+     * @return energy actually fed in after the cap [kWh]
+     */
+    public double step(int t, double load, double gridImport, double gridExport) {
+        while (nextMonth < monthStarts.length && monthStarts[nextMonth] <= t) {
+            fees += monthlyFee;
+            nextMonth++;
+        }
+        double price = purchasePrice[t];
+        double fedIn = gridExport < feedInCap ? gridExport : feedInCap;
+        importCost += gridImport * price;
+        exportRevenue += fedIn * feedInPrice[t];
+        baselineCost += load * price;
+        this.gridImport += gridImport;
+        this.gridExport += fedIn;
+        curtailed += gridExport - fedIn;
+        return fedIn;
+    }
+
+    public int steps() {
+        return purchasePrice.length;
+    }
+
+    public void reset() {
+        nextMonth = 0;
+        importCost = 0;
+        exportRevenue = 0;
+        fees = 0;
+        baselineCost = 0;
+        gridImport = 0;
+        gridExport = 0;
+        curtailed = 0;
+    }
+
+    // Energy cost without fees: import cost minus feed-in revenue [€]
+    public double getEnergyCost() {
+        return importCost - exportRevenue;
+    }
+
+    // Energy cost plus base fees [€]
+    public double getTotalCost() {
+        return getEnergyCost() + fees;
+    }
+
+    // Bill reduction compared to the same load without PV and battery (fees are paid either way) [€]
+    public double getSavings() {
+        return baselineCost - getEnergyCost();
+    }
+
+    public double getImportCost() {
+        return importCost;
+    }
+
+    public double getExportRevenue() {
+        return exportRevenue;
+    }
+
+    public double getFees() {
+        return fees;
+    }
+
+    public double getBaselineCost() {
+        return baselineCost;
+    }
+
+    public double getGridImport() {
+        return gridImport;
+    }
+
+    public double getGridExport() {
+        return gridExport;
+    }
+
+    public double getCurtailed() {
+        return curtailed;
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.Arrays;
+
+/**
+ * Purchase price by hour of the day, separately for working days (Monday to Friday) and weekends.
+ */
+public final class TimeOfUseTable {
+
+    private final double[] weekday = new double[24];
+    private final double[] weekend = new double[24];
+
+    // All hours start with the same price
+    public TimeOfUseTable(double defaultPrice) {
+        Arrays.fill(weekday, defaultPrice);
+        Arrays.fill(weekend, defaultPrice);
+    }
+
+    /**
+     * Sets the price of the hours fromHour (inclusive) to toHour (exclusive) on working days and weekends.
+     * toHour may be smaller than fromHour for periods over midnight, e.g. 22 to 6; equal hours mean the whole day.
+     */
+    public TimeOfUseTable set(int fromHour, int toHour, double price) {
+        setWeekday(fromHour, toHour, price);
+        return setWeekend(fromHour, toHour, price);
+    }
+
+    public TimeOfUseTable setWeekday(int fromHour, int toHour, double price) {
+        fill(weekday, fromHour, toHour, price);
+        return this;
+    }
+
+    public TimeOfUseTable setWeekend(int fromHour, int toHour, double price) {
+        fill(weekend, fromHour, toHour, price);
+        return this;
+    }
+
+    private static void fill(double[] hours, int fromHour, int toHour, double price) {
+        if (fromHour < 0 || fromHour > 23 || toHour < 0 || toHour > 24) {
+            throw new IllegalArgumentException("Hours must lie within 0..24: " + fromHour + " to " + toHour);
+        }
+        int count = toHour > fromHour ? toHour - fromHour : toHour + 24 - fromHour;
+        for (int i = 0; i < count; i++) {
+            hours[(fromHour + i) % 24] = price;
+        }
+    }
+
+    public double price(int hour, boolean weekendDay) {
+        return weekendDay ? weekend[hour] : weekday[hour];
+    }
+}
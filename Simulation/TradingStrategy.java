@@ -0,0 +1,15 @@
+/**
+ * Decides when the battery is charged from PV surplus and when it serves the household demand.
+ */
+public enum TradingStrategy {
+
+    /** Charge from every surplus, discharge on every deficit. */
+    SELF_CONSUMPTION,
+
+    /**
+     * Keep the stored energy for expensive hours: discharge only when the purchase price
+     * is at least the threshold, and sell the surplus instead of storing it when the
+     * feed-in price is at least the threshold.
+     */
+    PRICE_THRESHOLD
+}